@@ -0,0 +1,140 @@
+package com.erfan.warddata.Controllers;
+
+import com.erfan.warddata.Dto.IncomeDistributionDto;
+import com.erfan.warddata.Dto.LocalBodyDashboardDto;
+import com.erfan.warddata.Dto.VisitCountDto;
+import com.erfan.warddata.Dto.WardComparisonDto;
+import com.erfan.warddata.Enums.UserType;
+import com.erfan.warddata.Models.User;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Services.IncomeDistributionService;
+import com.erfan.warddata.Services.LocalBodyAnalyticsService;
+import com.erfan.warddata.Services.VisitRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api")
+public class AnalyticsController {
+
+    private final VisitRollupService visitRollupService;
+    private final LocalBodyAnalyticsService localBodyAnalyticsService;
+    private final IncomeDistributionService incomeDistributionService;
+
+    public AnalyticsController(VisitRollupService visitRollupService,
+            LocalBodyAnalyticsService localBodyAnalyticsService, IncomeDistributionService incomeDistributionService) {
+        this.visitRollupService = visitRollupService;
+        this.localBodyAnalyticsService = localBodyAnalyticsService;
+        this.incomeDistributionService = incomeDistributionService;
+    }
+
+    private User getCurrentUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    // --- VISIT PROGRESS ---
+    // Defaults to the last 30 days; one point per day, zero-filled
+    @GetMapping("/wards/{wardId}/analytics/timeseries")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<List<VisitCountDto>> getWardTimeseries(@PathVariable Long wardId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(visitRollupService.wardSeries(wardId, from, to));
+    }
+
+    // Admins and the agent see all wards; ward members only the wards assigned to them
+    @GetMapping("/agents/{id}/analytics/timeseries")
+    public ResponseEntity<List<VisitCountDto>> getAgentTimeseries(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        User user = getCurrentUser();
+        Set<Long> wardIds = null;
+        if (user.getUserType() != UserType.SUPER_ADMIN && !user.getId().equals(id)) {
+            if (user.getUserType() != UserType.WARD_MEMBER || user.getAssignedWards().isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+            }
+            wardIds = user.getAssignedWards().stream().map(Ward::getId).collect(Collectors.toSet());
+        }
+        return ResponseEntity.ok(visitRollupService.agentSeries(id, wardIds, from, to));
+    }
+
+    @PostMapping("/admin/visit-rollups/backfill")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> backfillVisitRollups(
+            @RequestParam(required = false) List<Long> wardIds) {
+        return ResponseEntity.ok(Map.of("buckets", visitRollupService.backfill(wardIds)));
+    }
+
+    // --- LOCAL BODY ROLLUPS ---
+    @GetMapping("/local-bodies")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<List<LocalBodyDashboardDto>> getLocalBodies() {
+        return ResponseEntity.ok(localBodyAnalyticsService.getLocalBodies());
+    }
+
+    @GetMapping("/local-bodies/{name}/dashboard")
+    @PreAuthorize("@wardSecurity.hasLocalBodyAccess(#name)")
+    public ResponseEntity<LocalBodyDashboardDto> getLocalBodyDashboard(@PathVariable String name) {
+        return ResponseEntity.ok(localBodyAnalyticsService.getLocalBodyDashboard(name));
+    }
+
+    // Ranked ward table; descending by default so the best ward comes first
+    @GetMapping("/local-bodies/{name}/wards")
+    @PreAuthorize("@wardSecurity.hasLocalBodyAccess(#name)")
+    public ResponseEntity<List<WardComparisonDto>> compareLocalBodyWards(@PathVariable String name,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "desc") String order) {
+        return ResponseEntity.ok(localBodyAnalyticsService.compareWards(name, sortBy, isAscending(order)));
+    }
+
+    @GetMapping("/wards/comparison")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<List<WardComparisonDto>> compareAllWards(@RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "desc") String order) {
+        return ResponseEntity.ok(localBodyAnalyticsService.compareWards(null, sortBy, isAscending(order)));
+    }
+
+    // --- INCOME DISTRIBUTION ---
+    // Quantiles of monthly household income, e.g. ?q=0.5&q=0.9 (defaults to p10..p90)
+    @GetMapping("/wards/{wardId}/analytics/income")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<IncomeDistributionDto> getWardIncome(@PathVariable Long wardId,
+            @RequestParam(required = false) List<Double> q) {
+        return ResponseEntity.ok(incomeDistributionService.getWardDistribution(wardId, q));
+    }
+
+    @GetMapping("/local-bodies/{name}/analytics/income")
+    @PreAuthorize("@wardSecurity.hasLocalBodyAccess(#name)")
+    public ResponseEntity<IncomeDistributionDto> getLocalBodyIncome(@PathVariable String name,
+            @RequestParam(required = false) List<Double> q) {
+        return ResponseEntity.ok(incomeDistributionService.getLocalBodyDistribution(name, q));
+    }
+
+    @PostMapping("/admin/income-sketches/rebuild")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildIncomeSketches(
+            @RequestParam(required = false) List<Long> wardIds) {
+        return ResponseEntity.ok(Map.of("buckets", incomeDistributionService.rebuild(wardIds)));
+    }
+
+    private static boolean isAscending(String order) {
+        if ("asc".equalsIgnoreCase(order)) {
+            return true;
+        }
+        if ("desc".equalsIgnoreCase(order)) {
+            return false;
+        }
+        throw new IllegalArgumentException("order must be 'asc' or 'desc'");
+    }
+}
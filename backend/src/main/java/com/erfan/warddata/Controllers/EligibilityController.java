@@ -0,0 +1,42 @@
+package com.erfan.warddata.Controllers;
+
+import com.erfan.warddata.Dto.EligibilityResultDto;
+import com.erfan.warddata.Dto.EligibilityRuleDto;
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Services.EligibilityService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api")
+public class EligibilityController {
+
+    private final EligibilityService eligibilityService;
+
+    public EligibilityController(EligibilityService eligibilityService) {
+        this.eligibilityService = eligibilityService;
+    }
+
+    // Households of the ward matching the rule, as JSON
+    @PostMapping("/wards/{wardId}/eligibility/evaluate")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<EligibilityResultDto> evaluate(@PathVariable Long wardId,
+            @RequestBody EligibilityRuleDto rule) {
+        return ResponseEntity.ok(eligibilityService.evaluate(wardId, rule));
+    }
+
+    // Same list as a CSV download
+    @PostMapping("/wards/{wardId}/eligibility/evaluate/csv")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<StreamingResponseBody> evaluateCsv(@PathVariable Long wardId,
+            @RequestBody EligibilityRuleDto rule) {
+        EligibilityResultDto result = eligibilityService.evaluate(wardId, rule);
+        StreamingResponseBody body = out -> eligibilityService.writeCsv(result, out);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=ward_" + wardId + "_eligible.csv")
+                .header("Content-Type", ExportFormat.CSV.getContentType())
+                .body(body);
+    }
+}
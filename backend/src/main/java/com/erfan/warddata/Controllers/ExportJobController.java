@@ -0,0 +1,57 @@
+package com.erfan.warddata.Controllers;
+
+import com.erfan.warddata.Dto.ExportJobDto;
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Models.User;
+import com.erfan.warddata.Services.ExportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    private User getCurrentUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    // --- ASYNC EXPORTS (WARD_MEMBER) ---
+    @PostMapping("/wards/{wardId}/export-jobs")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<ExportJobDto> startExport(@PathVariable Long wardId,
+            @RequestParam(defaultValue = "EXCEL") ExportFormat format) {
+        ExportJobDto job = exportJobService.submit(getCurrentUser().getId(), wardId, format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/wards/{wardId}/export-jobs/{jobId}")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<ExportJobDto> getExportJob(@PathVariable Long wardId, @PathVariable String jobId) {
+        return ResponseEntity.ok(exportJobService.getJob(getCurrentUser().getId(), wardId, jobId));
+    }
+
+    @GetMapping("/wards/{wardId}/export-jobs/{jobId}/download")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<Resource> downloadExport(@PathVariable Long wardId, @PathVariable String jobId) {
+        Long userId = getCurrentUser().getId();
+        Path file = exportJobService.getResult(userId, wardId, jobId);
+        ExportJobDto job = exportJobService.getJob(userId, wardId, jobId);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + job.getFileName())
+                .header("Content-Type", job.getFormat().getContentType())
+                .body(new FileSystemResource(file));
+    }
+}
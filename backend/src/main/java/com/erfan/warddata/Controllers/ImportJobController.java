@@ -0,0 +1,56 @@
+package com.erfan.warddata.Controllers;
+
+import com.erfan.warddata.Dto.ImportJobDto;
+import com.erfan.warddata.Models.User;
+import com.erfan.warddata.Services.ImportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    public ImportJobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    private User getCurrentUser() {
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    // --- BULK IMPORT (ADMIN / WARD_MEMBER) ---
+    @PostMapping(value = "/wards/{wardId}/import-jobs", consumes = "multipart/form-data")
+    @PreAuthorize("@wardSecurity.canManageWard(#wardId)")
+    public ResponseEntity<ImportJobDto> startImport(@PathVariable Long wardId,
+            @RequestParam("file") MultipartFile file) {
+        ImportJobDto job = importJobService.submit(getCurrentUser().getId(), wardId, file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/wards/{wardId}/import-jobs/{jobId}")
+    @PreAuthorize("@wardSecurity.canManageWard(#wardId)")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable Long wardId, @PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(getCurrentUser().getId(), wardId, jobId));
+    }
+
+    // Rejected rows as CSV (row, house_number, error), streamed from the spooled report
+    @GetMapping("/wards/{wardId}/import-jobs/{jobId}/errors")
+    @PreAuthorize("@wardSecurity.canManageWard(#wardId)")
+    public ResponseEntity<Resource> downloadErrors(@PathVariable Long wardId, @PathVariable String jobId) {
+        Path report = importJobService.getErrorReport(getCurrentUser().getId(), wardId, jobId);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=import-errors-" + jobId + ".csv")
+                .header("Content-Type", "text/csv")
+                .body(new FileSystemResource(report));
+    }
+}
@@ -1,25 +1,44 @@
 package com.erfan.warddata.Controllers;
 
+import com.erfan.warddata.Dto.AnalyticsCacheStatsDto;
+import com.erfan.warddata.Dto.CompactPageDto;
+import com.erfan.warddata.Dto.CursorPageDto;
+import com.erfan.warddata.Dto.HouseholdWithMembers;
 import com.erfan.warddata.Dto.WardAnalyticsDto;
+import com.erfan.warddata.Dto.WardDataVersion;
+import com.erfan.warddata.Dto.WardStatsDriftDto;
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Enums.HouseholdOrder;
 import com.erfan.warddata.Enums.UserType;
 import com.erfan.warddata.Models.FamilyMember;
 import com.erfan.warddata.Models.Household;
 import com.erfan.warddata.Models.User;
 import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Services.AnalyticsCacheService;
 import com.erfan.warddata.Services.AnalyticsService;
 import com.erfan.warddata.Services.AuditLogService;
+import com.erfan.warddata.Services.DashboardFeedService;
+import com.erfan.warddata.Services.ExportCacheService;
+import com.erfan.warddata.Services.HouseholdDumpService;
 import com.erfan.warddata.Services.HouseholdService;
 import com.erfan.warddata.Services.UserService;
+import com.erfan.warddata.Services.WardArchiveService;
+import com.erfan.warddata.Services.WardStatsService;
 import com.erfan.warddata.Services.WardService;
 import com.erfan.warddata.Services.ExportService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -33,15 +52,30 @@ public class WardManagementController {
     private final AnalyticsService analyticsService;
     private final AuditLogService auditLogService;
     private final ExportService exportService;
+    private final ExportCacheService exportCacheService;
+    private final WardArchiveService wardArchiveService;
+    private final HouseholdDumpService householdDumpService;
+    private final WardStatsService wardStatsService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final DashboardFeedService dashboardFeedService;
 
     public WardManagementController(WardService wardService, UserService userService, HouseholdService householdService,
-            AnalyticsService analyticsService, AuditLogService auditLogService, ExportService exportService) {
+            AnalyticsService analyticsService, AuditLogService auditLogService, ExportService exportService,
+            ExportCacheService exportCacheService, WardArchiveService wardArchiveService,
+            HouseholdDumpService householdDumpService, WardStatsService wardStatsService,
+            AnalyticsCacheService analyticsCacheService, DashboardFeedService dashboardFeedService) {
         this.wardService = wardService;
         this.userService = userService;
         this.householdService = householdService;
         this.analyticsService = analyticsService;
         this.auditLogService = auditLogService;
         this.exportService = exportService;
+        this.exportCacheService = exportCacheService;
+        this.wardArchiveService = wardArchiveService;
+        this.householdDumpService = householdDumpService;
+        this.wardStatsService = wardStatsService;
+        this.analyticsCacheService = analyticsCacheService;
+        this.dashboardFeedService = dashboardFeedService;
     }
 
     private User getCurrentUser() {
@@ -87,7 +121,21 @@ public class WardManagementController {
     public ResponseEntity<WardAnalyticsDto> getDashboard(@PathVariable Long wardId) {
         // Log view
         auditLogService.log(getCurrentUser().getId(), "VIEW", "DASHBOARD", null, wardId, "Viewed dashboard");
-        return ResponseEntity.ok(analyticsService.getWardAnalytics(wardId));
+        return ResponseEntity.ok(analyticsCacheService.getWardAnalytics(wardId));
+    }
+
+    // Live alternative to polling /dashboard: a snapshot, then deltas after each change
+    @GetMapping(value = "/wards/{wardId}/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public SseEmitter streamDashboard(@PathVariable Long wardId) {
+        auditLogService.log(getCurrentUser().getId(), "VIEW", "DASHBOARD", null, wardId, "Opened live dashboard");
+        return dashboardFeedService.subscribe(wardId);
+    }
+
+    @GetMapping("/admin/analytics-cache/stats")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<AnalyticsCacheStatsDto> getAnalyticsCacheStats() {
+        return ResponseEntity.ok(analyticsCacheService.getStats());
     }
 
     @GetMapping("/admin/stats")
@@ -96,6 +144,13 @@ public class WardManagementController {
         return ResponseEntity.ok(analyticsService.getGlobalStats());
     }
 
+    @PostMapping("/admin/ward-stats/reconcile")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<List<WardStatsDriftDto>> reconcileWardStats() {
+        // Returns only the wards whose counters had drifted (now corrected)
+        return ResponseEntity.ok(wardStatsService.reconcileAll());
+    }
+
     @GetMapping("/wards/{wardId}/households")
     @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
     public ResponseEntity<Page<Household>> getHouseholds(@PathVariable Long wardId,
@@ -103,29 +158,100 @@ public class WardManagementController {
         return ResponseEntity.ok(householdService.getHouseholdsInWard(wardId, pageable));
     }
 
+    // Lightweight list for agents on slow links: projected columns in a compact envelope,
+    // e.g. ?fields=houseNumber,visitStatus&page=0&size=50&sort=houseNumber
+    @GetMapping("/wards/{wardId}/households/list")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<CompactPageDto<?>> listHouseholds(@PathVariable Long wardId,
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(householdService.listHouseholdsInWard(wardId, fields, pageable, includeTotal));
+    }
+
+    // Cursor listing for infinite scroll; page cost stays flat however deep the agent scrolls
+    @GetMapping("/wards/{wardId}/households/scroll")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<CursorPageDto<Household>> scrollHouseholds(@PathVariable Long wardId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "ID") HouseholdOrder order,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(householdService.scrollHouseholdsInWard(wardId, order, cursor, size, includeTotal));
+    }
+
     // --- EXPORTS (WARD_MEMBER) ---
     @GetMapping("/wards/{wardId}/export/excel")
     @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
-    public ResponseEntity<byte[]> exportExcel(@PathVariable Long wardId) {
-        byte[] data = exportService.exportWardDataToExcel(wardId);
-        Ward ward = wardService.getWardById(wardId);
-        String name = ward.getName().replaceAll("[^a-zA-Z0-9]", "_");
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=ward_" + name + "_data.xlsx")
-                .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                .body(data);
+    public ResponseEntity<StreamingResponseBody> exportExcel(@PathVariable Long wardId, WebRequest request) {
+        // Rows are written straight to the servlet output stream as they are produced
+        return cachedExport(wardId, "xlsx", ExportFormat.EXCEL.getContentType(), request,
+                version -> ExportFormat.EXCEL.fileName(version.getWardName()),
+                out -> exportService.exportWardDataToExcel(wardId, out));
     }
 
     @GetMapping("/wards/{wardId}/export/pdf")
     @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
-    public ResponseEntity<byte[]> exportPdf(@PathVariable Long wardId) {
-        byte[] data = exportService.exportWardDataToPdf(wardId);
-        Ward ward = wardService.getWardById(wardId);
-        String name = ward.getName().replaceAll("[^a-zA-Z0-9]", "_");
+    public ResponseEntity<StreamingResponseBody> exportPdf(@PathVariable Long wardId, WebRequest request) {
+        return cachedExport(wardId, "pdf", ExportFormat.PDF.getContentType(), request,
+                version -> ExportFormat.PDF.fileName(version.getWardName()),
+                out -> exportService.exportWardDataToPdf(wardId, out));
+    }
+
+    @GetMapping("/wards/{wardId}/export/csv")
+    @PreAuthorize("@wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable Long wardId,
+            @RequestParam(defaultValue = "false") boolean gzip, WebRequest request) {
+        return cachedExport(wardId, gzip ? "csv.gz" : "csv",
+                gzip ? "application/gzip" : ExportFormat.CSV.getContentType(), request,
+                version -> ExportFormat.CSV.fileName(version.getWardName()) + (gzip ? ".gz" : ""),
+                out -> exportService.exportWardDataToCsv(wardId, out, gzip));
+    }
+
+    @GetMapping("/admin/export/wards")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportWardsArchive(
+            @RequestParam(required = false) List<Long> wardIds,
+            @RequestParam(defaultValue = "EXCEL") ExportFormat format) {
+        StreamingResponseBody body = out -> wardArchiveService.writeWardsArchive(wardIds, format, out);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=wards_" + format.getExtension() + "_export.zip")
+                .header("Content-Type", "application/zip")
+                .body(body);
+    }
+
+    @GetMapping("/admin/export/households")
+    @PreAuthorize("hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> dumpHouseholds(
+            @RequestParam(required = false) List<Long> wardIds,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // One JSON household with embedded members per line, for warehouse loads
+        StreamingResponseBody body = out -> householdDumpService.writeNdjson(wardIds, out, gzip);
         return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=ward_" + name + "_data.pdf")
-                .header("Content-Type", "application/pdf")
-                .body(data);
+                .header("Content-Disposition", "attachment; filename=households.ndjson" + (gzip ? ".gz" : ""))
+                .header("Content-Type", gzip ? "application/gzip" : "application/x-ndjson")
+                .body(body);
+    }
+
+    /**
+     * Serves an export with an ETag derived from the ward data version. Unchanged
+     * wards answer If-None-Match with 304 after a single version lookup, and
+     * repeated downloads are served from the export cache.
+     */
+    private ResponseEntity<StreamingResponseBody> cachedExport(Long wardId, String variant, String contentType,
+            WebRequest request, java.util.function.Function<WardDataVersion, String> fileName,
+            ExportCacheService.ExportRenderer renderer) {
+        WardDataVersion version = exportCacheService.getWardDataVersion(wardId);
+        String etag = exportCacheService.etag(version, variant);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        StreamingResponseBody body = out -> exportCacheService.writeExport(version, variant, out, renderer);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header("Content-Disposition", "attachment; filename=" + fileName.apply(version))
+                .header("Content-Type", contentType)
+                .body(body);
     }
 
     // --- HOUSEHOLD MANAGEMENT (AGENT) ---
@@ -135,6 +261,18 @@ public class WardManagementController {
         return ResponseEntity.ok(householdService.createHousehold(getCurrentUser().getId(), wardId, household));
     }
 
+    // Household and all of its members in one request and one transaction
+    @PostMapping("/wards/{wardId}/households/with-members")
+    @PreAuthorize("hasAuthority('AGENT') and @wardSecurity.hasAccess(#wardId)")
+    public ResponseEntity<HouseholdWithMembers> createHouseholdWithMembers(@PathVariable Long wardId,
+            @RequestBody HouseholdWithMembers entry) {
+        if (entry.getHousehold() == null) {
+            throw new IllegalArgumentException("household is required");
+        }
+        return ResponseEntity.ok(householdService.createHouseholdWithMembers(getCurrentUser().getId(), wardId,
+                entry.getHousehold(), entry.getMembers()));
+    }
+
     @PutMapping("/households/{id}")
     @PreAuthorize("hasAuthority('AGENT') and @wardSecurity.hasAccess(getHousehold(#id).wardId)") // Security check might
                                                                                                  // need service lookup
@@ -0,0 +1,16 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Enums.AgeBand;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AgeBandCountDto {
+    private AgeBand band;
+    private String label;
+    private long male;
+    private long female;
+    private long other;
+    private long total;
+}
@@ -0,0 +1,14 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+@Data
+public class AnalyticsCacheStatsDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long loadCount;
+    private double averageLoadMillis;
+}
@@ -0,0 +1,22 @@
+package com.erfan.warddata.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Small page envelope for list views, in place of Spring's {@code Page} JSON
+ * with its pageable and sort blocks. Whether another page follows is found by
+ * reading one extra row, so no COUNT(*) runs unless the total is asked for.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactPageDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    // Only filled when the caller asks for it
+    private Long totalElements;
+}
@@ -0,0 +1,19 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a cursor (keyset) listing. Pass {@code nextCursor} back to get
+ * the following page; it is null on the last page.
+ */
+@Data
+public class CursorPageDto<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    // Only filled when the caller asks for it, since it costs a COUNT(*)
+    private Long totalElements;
+}
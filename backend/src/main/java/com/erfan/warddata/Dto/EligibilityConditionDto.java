@@ -0,0 +1,13 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+@Data
+public class EligibilityConditionDto {
+    // Household or member field, e.g. rationCardType, age, monthlyIncome
+    private String field;
+    // eq, ne, in, notIn, gt, gte, lt, lte, contains, isNull, notNull
+    private String op;
+    // Single value, or a list for in / notIn; unused for isNull / notNull
+    private Object value;
+}
@@ -0,0 +1,18 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class EligibilityResultDto {
+    private String ruleName;
+    private Long wardId;
+    // Ward data version the result was computed from
+    private String dataVersion;
+    private Instant evaluatedAt;
+    private long householdsScanned;
+    private int matchCount;
+    private List<EligibleHouseholdDto> households;
+}
@@ -0,0 +1,16 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A household is eligible when every household condition holds and every
+ * member clause is satisfied.
+ */
+@Data
+public class EligibilityRuleDto {
+    private String name;
+    private List<EligibilityConditionDto> household;
+    private List<MemberClauseDto> members;
+}
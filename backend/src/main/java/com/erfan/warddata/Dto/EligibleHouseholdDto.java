@@ -0,0 +1,16 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class EligibleHouseholdDto {
+    private Long householdId;
+    private String houseNumber;
+    private String landmark;
+    private String rationCardType;
+    private int memberCount;
+    // Sum of the members' monthly incomes
+    private BigDecimal monthlyIncome;
+}
@@ -0,0 +1,25 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Enums.ExportJobStatus;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ExportJobDto {
+    private String jobId;
+    private Long wardId;
+    private ExportFormat format;
+    private String fileName;
+    private ExportJobStatus status;
+
+    // Progress
+    private long processedHouseholds;
+    private long totalHouseholds;
+
+    private Instant createdAt;
+    private Instant completedAt;
+    private Instant expiresAt;
+    private String error;
+}
@@ -2,6 +2,9 @@ package com.erfan.warddata.Dto;
 
 import lombok.Data;
 
+import java.time.Instant;
+import java.util.List;
+
 @Data
 public class GlobalStatsDto {
     private long totalWards;
@@ -9,4 +12,8 @@ public class GlobalStatsDto {
     private long totalHouseholds;
     private long totalPopulation;
     private long activeAgents;
+
+    private List<WardSummaryDto> wards;
+    // When this snapshot was taken
+    private Instant generatedAt;
 }
@@ -0,0 +1,17 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Enums.VisitStatus;
+
+/**
+ * Closed projection for the agent's household list: Spring Data selects only
+ * these four columns instead of the whole row.
+ */
+public interface HouseholdListItem {
+    Long getId();
+
+    String getHouseNumber();
+
+    VisitStatus getVisitStatus();
+
+    String getLandmark();
+}
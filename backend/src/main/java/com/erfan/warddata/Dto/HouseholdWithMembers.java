@@ -0,0 +1,18 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HouseholdWithMembers {
+    private Household household;
+    private List<FamilyMember> members = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Enums.ImportJobStatus;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ImportJobDto {
+    private String jobId;
+    private Long wardId;
+    private String fileName;
+    private ImportJobStatus status;
+
+    // Progress
+    private long rowsRead;
+    private long householdsImported;
+    private long membersImported;
+    private long householdsRejected;
+    private long rowsRejected;
+
+    private Instant createdAt;
+    private Instant completedAt;
+    private Instant expiresAt;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class IncomeDistributionDto {
+    // Ward name or local body name
+    private String scope;
+    private int wardCount;
+    // Every quantile is within this fraction of the exact value
+    private double relativeError;
+    private IncomeQuantilesDto all;
+    // APL, BPL, AAY and NONE for households without a card type
+    private Map<String, IncomeQuantilesDto> byRationCardType;
+}
@@ -0,0 +1,12 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class IncomeQuantilesDto {
+    private long households;
+    // Monthly household income in rupees per requested quantile, keyed p10, p50, p90...
+    private Map<String, Long> quantiles;
+}
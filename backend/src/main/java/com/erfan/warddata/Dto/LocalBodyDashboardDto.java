@@ -0,0 +1,15 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class LocalBodyDashboardDto {
+    private String localBody;
+    private int wardCount;
+    // Sum of the ward dashboards; wardName is left empty
+    private WardAnalyticsDto totals;
+    // When the underlying ward snapshot was taken
+    private Instant generatedAt;
+}
@@ -0,0 +1,14 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberClauseDto {
+    // ANY (at least minCount members match), NONE or ALL
+    private String quantifier;
+    private Integer minCount;
+    // Conditions on one member, all of which must hold
+    private List<EligibilityConditionDto> where;
+}
@@ -0,0 +1,13 @@
+package com.erfan.warddata.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class VisitCountDto {
+    private LocalDate date;
+    private long visits;
+}
@@ -2,6 +2,8 @@ package com.erfan.warddata.Dto;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class WardAnalyticsDto {
     private String wardName;
@@ -23,4 +25,7 @@ public class WardAnalyticsDto {
     // Vulnerable groups
     private long seniorCitizens;
     private long disabledPersons;
+
+    // Members per age band (from date of birth) split by gender
+    private List<AgeBandCountDto> ageBands;
 }
@@ -0,0 +1,21 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+@Data
+public class WardComparisonDto {
+    private int rank;
+    private Long wardId;
+    private String wardName;
+    private String localBody;
+    private long totalHouseholds;
+    private long visitedHouseholds;
+    private long verifiedHouseholds;
+    // Visited share of the households, 0-100
+    private double visitedPercent;
+    private long totalPopulation;
+    private long bplCount;
+    private long aayCount;
+    private long seniorCitizens;
+    private long disabledPersons;
+}
@@ -0,0 +1,13 @@
+package com.erfan.warddata.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class WardDataVersion {
+    private Long wardId;
+    private String wardName;
+    // Opaque fingerprint that changes whenever any exported data of the ward changes
+    private String version;
+}
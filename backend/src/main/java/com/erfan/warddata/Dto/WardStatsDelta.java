@@ -0,0 +1,59 @@
+package com.erfan.warddata.Dto;
+
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Enums.VisitStatus;
+import lombok.Data;
+
+/**
+ * Change to a ward's counters caused by one write. A changed record is removed
+ * with its old values and added back with the new ones, so only the fields
+ * that actually moved end up non-zero.
+ */
+@Data
+public class WardStatsDelta {
+    private long households;
+    private long visited;
+    private long verified;
+    private long apl;
+    private long bpl;
+    private long aay;
+    private long population;
+    private long male;
+    private long female;
+    private long seniors;
+    private long disabled;
+
+    public WardStatsDelta household(VisitStatus visitStatus, RationCardType rationCardType, int sign) {
+        households += sign;
+        if (visitStatus != null && visitStatus != VisitStatus.NOT_VISITED)
+            visited += sign;
+        if (visitStatus == VisitStatus.VERIFIED)
+            verified += sign;
+        if (rationCardType == RationCardType.APL)
+            apl += sign;
+        else if (rationCardType == RationCardType.BPL)
+            bpl += sign;
+        else if (rationCardType == RationCardType.AAY)
+            aay += sign;
+        return this;
+    }
+
+    public WardStatsDelta member(Gender gender, Boolean seniorCitizen, Boolean disabled, int sign) {
+        population += sign;
+        if (gender == Gender.MALE)
+            male += sign;
+        else if (gender == Gender.FEMALE)
+            female += sign;
+        if (Boolean.TRUE.equals(seniorCitizen))
+            seniors += sign;
+        if (Boolean.TRUE.equals(disabled))
+            this.disabled += sign;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return households == 0 && visited == 0 && verified == 0 && apl == 0 && bpl == 0 && aay == 0
+                && population == 0 && male == 0 && female == 0 && seniors == 0 && disabled == 0;
+    }
+}
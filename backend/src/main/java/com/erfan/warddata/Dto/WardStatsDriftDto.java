@@ -0,0 +1,14 @@
+package com.erfan.warddata.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class WardStatsDriftDto {
+    private Long wardId;
+    // Counter name -> (actual - stored)
+    private Map<String, Long> differences;
+}
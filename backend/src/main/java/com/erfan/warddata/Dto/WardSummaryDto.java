@@ -0,0 +1,17 @@
+package com.erfan.warddata.Dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class WardSummaryDto {
+    private Long wardId;
+    private String wardName;
+    private String localBody;
+    private long totalHouseholds;
+    private long visitedHouseholds;
+    private long totalPopulation;
+    // Last change to the ward's counters
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.erfan.warddata.Enums;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+public enum AgeBand {
+    AGE_0_5("0-5", 0),
+    AGE_6_14("6-14", 6),
+    AGE_15_17("15-17", 15),
+    AGE_18_35("18-35", 18),
+    AGE_36_59("36-59", 36),
+    AGE_60_PLUS("60+", 60),
+    UNKNOWN("Unknown", -1);
+
+    private final String label;
+    private final int minAge;
+
+    AgeBand(String label, int minAge) {
+        this.label = label;
+        this.minAge = minAge;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // Age at which a member enters this band, -1 for UNKNOWN
+    public int getMinAge() {
+        return minAge;
+    }
+
+    public static AgeBand of(LocalDate dateOfBirth, LocalDate asOf) {
+        if (dateOfBirth == null) {
+            return UNKNOWN;
+        }
+        return ofAge(Period.between(dateOfBirth, asOf).getYears());
+    }
+
+    public static AgeBand ofAge(int age) {
+        AgeBand band = AGE_0_5;
+        for (AgeBand candidate : values()) {
+            if (candidate != UNKNOWN && age >= candidate.minAge) {
+                band = candidate;
+            }
+        }
+        return band;
+    }
+}
@@ -0,0 +1,27 @@
+package com.erfan.warddata.Enums;
+
+public enum ExportFormat {
+    EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    PDF("pdf", "application/pdf"),
+    CSV("csv", "text/csv; charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String fileName(String wardName) {
+        return "ward_" + wardName.replaceAll("[^a-zA-Z0-9]", "_") + "_data." + extension;
+    }
+}
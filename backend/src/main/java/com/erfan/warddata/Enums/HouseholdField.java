@@ -0,0 +1,35 @@
+package com.erfan.warddata.Enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Household attributes that sparse listings may select or sort by, under their JSON names
+public enum HouseholdField {
+    ID("id"),
+    WARD_ID("wardId"),
+    HOUSE_NUMBER("houseNumber"),
+    LANDMARK("landmark"),
+    FULL_ADDRESS("fullAddress"),
+    RATION_CARD_NUMBER("rationCardNumber"),
+    RATION_CARD_TYPE("rationCardType"),
+    LATITUDE("latitude"),
+    LONGITUDE("longitude"),
+    VISIT_STATUS("visitStatus"),
+    VISITED_AT("visitedAt"),
+    CREATED_BY_AGENT_ID("createdByAgentId"),
+    UPDATED_AT("updatedAt");
+
+    private final String attribute;
+
+    HouseholdField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public static Optional<HouseholdField> fromAttribute(String attribute) {
+        return Arrays.stream(values()).filter(f -> f.attribute.equals(attribute)).findFirst();
+    }
+}
@@ -0,0 +1,6 @@
+package com.erfan.warddata.Enums;
+
+// Orders of the cursor household listing; each is a prefix of a households index
+public enum HouseholdOrder {
+    ID, HOUSE_NUMBER
+}
@@ -0,0 +1,5 @@
+package com.erfan.warddata.Enums;
+
+public enum ImportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
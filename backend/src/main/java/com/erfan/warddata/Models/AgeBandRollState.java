@@ -0,0 +1,30 @@
+package com.erfan.warddata.Models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * The single row recording the day the age band counters are correct for.
+ * Shared by every replica, so member writes place members against the same
+ * day and each birthday roll is applied once.
+ */
+@Entity
+@Table(name = "age_band_roll_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgeBandRollState {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "rolled_through", nullable = false)
+    private LocalDate rolledThrough;
+}
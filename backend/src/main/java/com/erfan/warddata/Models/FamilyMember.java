@@ -14,6 +14,7 @@ import java.sql.Date;
 import java.sql.Timestamp;
 
 @Entity
+// Secondary indexes are created by the db/migration scripts
 @Table(name = "family_members")
 @Getter
 @Setter
@@ -21,7 +22,9 @@ import java.sql.Timestamp;
 @AllArgsConstructor
 public class FamilyMember {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (a table-backed sequence on MySQL) let Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "family_members_seq")
+    @SequenceGenerator(name = "family_members_seq", sequenceName = "family_members_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "household_id", nullable = false)
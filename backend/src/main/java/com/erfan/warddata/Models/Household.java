@@ -13,6 +13,7 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 
 @Entity
+// Secondary indexes are created by the db/migration scripts
 @Table(name = "households")
 @Getter
 @Setter
@@ -20,7 +21,9 @@ import java.sql.Timestamp;
 @AllArgsConstructor
 public class Household {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (a table-backed sequence on MySQL) let Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "households_seq")
+    @SequenceGenerator(name = "households_seq", sequenceName = "households_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "ward_id", nullable = false)
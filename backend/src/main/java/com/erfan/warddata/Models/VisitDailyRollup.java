@@ -0,0 +1,40 @@
+package com.erfan.warddata.Models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Households visited per ward, day and agent. The key leads with the ward so
+ * ward range queries read one contiguous index range; agent ranges use the
+ * secondary index from the db/migration scripts. Hibernate orders the key
+ * columns by name when it creates the table, so V4 there sets the order.
+ */
+@Entity
+@Table(name = "visit_daily_rollups")
+@IdClass(VisitDailyRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitDailyRollup {
+    @Id
+    @Column(name = "ward_id")
+    private Long wardId;
+
+    @Id
+    @Column(name = "visit_date")
+    private LocalDate visitDate;
+
+    // 0 when the household has no recorded agent
+    @Id
+    @Column(name = "agent_id")
+    private Long agentId;
+
+    @Column(nullable = false)
+    private long visits;
+}
@@ -0,0 +1,17 @@
+package com.erfan.warddata.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitDailyRollupId implements Serializable {
+    private Long wardId;
+    private LocalDate visitDate;
+    private Long agentId;
+}
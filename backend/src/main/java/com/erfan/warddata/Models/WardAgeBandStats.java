@@ -0,0 +1,40 @@
+package com.erfan.warddata.Models;
+
+import com.erfan.warddata.Enums.AgeBand;
+import com.erfan.warddata.Enums.Gender;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Members per ward, age band and gender. Bands are assigned from the date of
+ * birth when a member is written and moved forward by the nightly birthday
+ * roll, so reads never compute ages. Members without a gender count as OTHER.
+ */
+@Entity
+@Table(name = "ward_age_band_stats")
+@IdClass(WardAgeBandStatsId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardAgeBandStats {
+    @Id
+    @Column(name = "ward_id")
+    private Long wardId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "age_band", length = 16)
+    private AgeBand ageBand;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Gender gender;
+
+    @Column(nullable = false)
+    private long members;
+}
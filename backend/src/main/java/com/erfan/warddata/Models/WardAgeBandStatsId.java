@@ -0,0 +1,18 @@
+package com.erfan.warddata.Models;
+
+import com.erfan.warddata.Enums.AgeBand;
+import com.erfan.warddata.Enums.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardAgeBandStatsId implements Serializable {
+    private Long wardId;
+    private AgeBand ageBand;
+    private Gender gender;
+}
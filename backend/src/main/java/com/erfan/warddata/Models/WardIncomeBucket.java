@@ -0,0 +1,38 @@
+package com.erfan.warddata.Models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Households per ward, ration card type and income bucket: the persisted form
+ * of the ward's income sketch (see IncomeSketch). Only occupied buckets have a
+ * row. A household's income is the sum of its members' monthly incomes, and
+ * households without members are not counted. Households without a ration
+ * card type are filed under NONE.
+ */
+@Entity
+@Table(name = "ward_income_buckets")
+@IdClass(WardIncomeBucketId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardIncomeBucket {
+    @Id
+    @Column(name = "ward_id")
+    private Long wardId;
+
+    @Id
+    @Column(name = "ration_card_type", length = 8)
+    private String rationCardType;
+
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(nullable = false)
+    private long households;
+}
@@ -0,0 +1,16 @@
+package com.erfan.warddata.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardIncomeBucketId implements Serializable {
+    private Long wardId;
+    private String rationCardType;
+    private Integer bucket;
+}
@@ -0,0 +1,61 @@
+package com.erfan.warddata.Models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * Running counters behind the ward dashboard. Kept in step with household and
+ * member writes in the same transaction, and rebuilt by the reconcile job.
+ */
+@Entity
+@Table(name = "ward_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardStats {
+    @Id
+    @Column(name = "ward_id")
+    private Long wardId;
+
+    @Column(name = "total_households", nullable = false)
+    private long totalHouseholds;
+
+    @Column(name = "visited_households", nullable = false)
+    private long visitedHouseholds;
+
+    @Column(name = "verified_households", nullable = false)
+    private long verifiedHouseholds;
+
+    @Column(name = "apl_count", nullable = false)
+    private long aplCount;
+
+    @Column(name = "bpl_count", nullable = false)
+    private long bplCount;
+
+    @Column(name = "aay_count", nullable = false)
+    private long aayCount;
+
+    @Column(name = "total_population", nullable = false)
+    private long totalPopulation;
+
+    @Column(name = "male_count", nullable = false)
+    private long maleCount;
+
+    @Column(name = "female_count", nullable = false)
+    private long femaleCount;
+
+    @Column(name = "senior_citizens", nullable = false)
+    private long seniorCitizens;
+
+    @Column(name = "disabled_persons", nullable = false)
+    private long disabledPersons;
+
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Models.AgeBandRollState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AgeBandRollStateRepository extends JpaRepository<AgeBandRollState, Integer> {
+
+    // Shared lock for member writes: they wait while a roll holds the row, and a roll waits for them
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT s FROM AgeBandRollState s WHERE s.id = :id")
+    Optional<AgeBandRollState> findByIdForShare(Integer id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AgeBandRollState s WHERE s.id = :id")
+    Optional<AgeBandRollState> findByIdForUpdate(Integer id);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO age_band_roll_state (id, rolled_through) VALUES (:id, :day)",
+            nativeQuery = true)
+    void insertIfMissing(Integer id, LocalDate day);
+
+    // Claims one day of the roll; 0 when another replica has already rolled it
+    @Modifying
+    @Query(value = "UPDATE age_band_roll_state SET rolled_through = :next "
+            + "WHERE id = :id AND rolled_through = :previous", nativeQuery = true)
+    int advance(Integer id, LocalDate previous, LocalDate next);
+}
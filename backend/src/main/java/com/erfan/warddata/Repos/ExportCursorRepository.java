@@ -0,0 +1,81 @@
+package com.erfan.warddata.Repos;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Flat household/member reads for bulk outputs. Rows are read through a
+ * forward-only MySQL streaming result set and handed to the callback one at a
+ * time, so neither entities nor the full result are ever materialised.
+ */
+@Repository
+public class ExportCursorRepository {
+
+    public static final List<String> HOUSEHOLD_MEMBER_COLUMNS = List.of(
+            "household_id", "ward_id", "house_number", "landmark", "full_address", "ration_card_number",
+            "ration_card_type", "visit_status", "visited_at", "latitude", "longitude",
+            "member_id", "full_name", "gender", "date_of_birth", "relationship_to_head", "education",
+            "occupation", "monthly_income", "aadhaar_number", "mobile_number", "disability_flag",
+            "senior_citizen_flag");
+
+    private static final String HOUSEHOLD_MEMBER_SELECT = "SELECT h.id, h.ward_id, h.house_number, h.landmark, "
+            + "h.full_address, h.ration_card_number, h.ration_card_type, h.visit_status, h.visited_at, "
+            + "h.latitude, h.longitude, fm.id, fm.full_name, fm.gender, fm.date_of_birth, "
+            + "fm.relationship_to_head, fm.education, fm.occupation, fm.monthly_income, fm.aadhaar_number, "
+            + "fm.mobile_number, fm.disability_flag, fm.senior_citizen_flag "
+            + "FROM households h LEFT JOIN family_members fm ON fm.household_id = h.id ";
+
+    public static final List<String> DUMP_HOUSEHOLD_COLUMNS = List.of(
+            "id", "ward_id", "house_number", "landmark", "full_address", "ration_card_number", "ration_card_type",
+            "latitude", "longitude", "visit_status", "visited_at", "created_by_agent_id", "updated_at");
+
+    public static final List<String> DUMP_MEMBER_COLUMNS = List.of(
+            "id", "full_name", "gender", "date_of_birth", "relationship_to_head", "education", "occupation",
+            "monthly_income", "aadhaar_number", "mobile_number", "disability_flag", "senior_citizen_flag",
+            "created_at", "updated_at");
+
+    private static final String DUMP_SELECT = "SELECT "
+            + DUMP_HOUSEHOLD_COLUMNS.stream().map(c -> "h." + c).collect(Collectors.joining(", ")) + ", "
+            + DUMP_MEMBER_COLUMNS.stream().map(c -> "fm." + c).collect(Collectors.joining(", "))
+            + " FROM households h LEFT JOIN family_members fm ON fm.household_id = h.id ";
+
+    private final JdbcTemplate cursorTemplate;
+
+    public ExportCursorRepository(DataSource dataSource) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the result
+        this.cursorTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Streams one row per family member of the ward (one row with empty member
+     * columns for households without members), ordered by household then member.
+     * Columns follow {@link #HOUSEHOLD_MEMBER_COLUMNS}.
+     */
+    public void streamWardHouseholdMembers(Long wardId, RowCallbackHandler handler) {
+        cursorTemplate.query(HOUSEHOLD_MEMBER_SELECT + "WHERE h.ward_id = ? ORDER BY h.id, fm.id", handler, wardId);
+    }
+
+    /**
+     * Streams every household of the given wards (all wards when empty) with all
+     * of its columns, followed by all member columns, one row per member. Columns
+     * follow {@link #DUMP_HOUSEHOLD_COLUMNS} then {@link #DUMP_MEMBER_COLUMNS};
+     * rows of one household are always adjacent.
+     */
+    public void streamHouseholdDump(Collection<Long> wardIds, RowCallbackHandler handler) {
+        if (wardIds == null || wardIds.isEmpty()) {
+            cursorTemplate.query(DUMP_SELECT + "ORDER BY h.id, fm.id", handler);
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(wardIds.size(), "?"));
+        cursorTemplate.query(DUMP_SELECT + "WHERE h.ward_id IN (" + placeholders + ") ORDER BY h.id, fm.id",
+                handler, wardIds.toArray());
+    }
+}
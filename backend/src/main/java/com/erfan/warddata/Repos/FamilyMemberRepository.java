@@ -5,18 +5,29 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FamilyMemberRepository extends JpaRepository<FamilyMember, Long> {
     List<FamilyMember> findByHouseholdId(Long householdId);
 
-    @Query("SELECT fm.gender, COUNT(fm) FROM FamilyMember fm JOIN Household h ON fm.householdId = h.id WHERE h.wardId = :wardId GROUP BY fm.gender")
-    List<Object[]> countByGenderAndWardId(Long wardId);
+    // Scalar read, so the member entity is only loaded once its household is locked
+    @Query("SELECT fm.householdId FROM FamilyMember fm WHERE fm.id = :id")
+    Optional<Long> findHouseholdIdById(Long id);
 
-    @Query("SELECT COUNT(fm) FROM FamilyMember fm JOIN Household h ON fm.householdId = h.id WHERE h.wardId = :wardId AND fm.seniorCitizenFlag = true")
-    long countSeniorsByWardId(Long wardId);
+    // For Export: members of a whole chunk of households in one query
+    List<FamilyMember> findByHouseholdIdInOrderByHouseholdIdAscIdAsc(Collection<Long> householdIds);
 
-    @Query("SELECT COUNT(fm) FROM FamilyMember fm JOIN Household h ON fm.householdId = h.id WHERE h.wardId = :wardId AND fm.disabilityFlag = true")
-    long countDisabledByWardId(Long wardId);
+    // Member count and summed monthly income of one household, as one row
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(monthly_income), 0) FROM family_members "
+            + "WHERE household_id = :householdId", nativeQuery = true)
+    List<Object[]> findIncomeTotal(Long householdId);
+
+    // Ration card type and monthly income of every household with members in a ward
+    @Query(value = "SELECT h.ration_card_type, COALESCE(SUM(fm.monthly_income), 0) FROM households h "
+            + "JOIN family_members fm ON fm.household_id = h.id WHERE h.ward_id = :wardId "
+            + "GROUP BY h.id, h.ration_card_type", nativeQuery = true)
+    List<Object[]> findHouseholdIncomes(Long wardId);
 }
@@ -0,0 +1,63 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Enums.HouseholdField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse-fieldset reads of a ward's households: the SELECT list holds only the
+ * requested columns. Field and sort names come from {@link HouseholdField},
+ * never from the request text, so the generated JPQL is always one of a known
+ * set of shapes.
+ */
+@Repository
+public class HouseholdProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public HouseholdProjectionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Rows of the ward keyed by field name, in {@code fields} order. Ties in
+     * {@code sort} are broken by id so pages never overlap.
+     */
+    public List<Map<String, Object>> findFieldsByWardId(Long wardId, List<HouseholdField> fields,
+            List<Sort.Order> sort, long offset, int limit) {
+        String select = fields.stream().map(f -> "h." + f.getAttribute()).collect(Collectors.joining(", "));
+        StringBuilder orderBy = new StringBuilder();
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            HouseholdField field = HouseholdField.fromAttribute(order.getProperty())
+                    .orElseThrow(() -> new IllegalArgumentException("Cannot sort by " + order.getProperty()));
+            orderBy.append(orderBy.length() == 0 ? "" : ", ").append("h.").append(field.getAttribute())
+                    .append(order.isAscending() ? " ASC" : " DESC");
+            byId |= field == HouseholdField.ID;
+        }
+        if (!byId) {
+            orderBy.append(orderBy.length() == 0 ? "" : ", ").append("h.id ASC");
+        }
+
+        List<Tuple> rows = entityManager.createQuery("SELECT " + select + " FROM Household h "
+                + "WHERE h.wardId = :wardId ORDER BY " + orderBy, Tuple.class)
+                .setParameter("wardId", wardId)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+        return rows.stream().map(row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(fields.get(i).getAttribute(), row.get(i));
+            }
+            return values;
+        }).collect(Collectors.toList());
+    }
+}
@@ -1,28 +1,73 @@
 package com.erfan.warddata.Repos;
 
+import com.erfan.warddata.Dto.HouseholdListItem;
 import com.erfan.warddata.Models.Household;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HouseholdRepository extends JpaRepository<Household, Long> {
     Page<Household> findByWardId(Long wardId, Pageable pageable);
 
-    // For Export
-    List<Household> findAllByWardId(Long wardId);
+    // Household and member updates lock the household row, so concurrent writes read its old state one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Household h WHERE h.id = :id")
+    Optional<Household> findByIdForUpdate(Long id);
+
+    // Agent list view: only the projected columns are selected, and the Slice skips the count query
+    Slice<HouseholdListItem> findListItemsByWardId(Long wardId, Pageable pageable);
+
+    // For Export and the cursor listing: keyset-ordered chunks
+    List<Household> findByWardIdAndIdGreaterThanOrderByIdAsc(Long wardId, Long id, Pageable pageable);
+
+    // Cursor listing by house number, seeking on (ward_id, house_number, id). Households
+    // without a house number sort first, as MySQL orders NULL before any value.
+    @Query("SELECT h FROM Household h WHERE h.wardId = :wardId ORDER BY h.houseNumber, h.id")
+    List<Household> findFirstByHouseNumber(Long wardId, Pageable pageable);
+
+    @Query("SELECT h FROM Household h WHERE h.wardId = :wardId "
+            + "AND ((h.houseNumber IS NULL AND h.id > :id) OR h.houseNumber IS NOT NULL) "
+            + "ORDER BY h.houseNumber, h.id")
+    List<Household> findAfterNullHouseNumber(Long wardId, Long id, Pageable pageable);
+
+    @Query("SELECT h FROM Household h WHERE h.wardId = :wardId "
+            + "AND (h.houseNumber > :houseNumber OR (h.houseNumber = :houseNumber AND h.id > :id)) "
+            + "ORDER BY h.houseNumber, h.id")
+    List<Household> findAfterHouseNumber(Long wardId, String houseNumber, Long id, Pageable pageable);
+
+    // Import: house numbers already taken in the ward
+    @Query("SELECT h.houseNumber FROM Household h WHERE h.wardId = :wardId AND h.houseNumber IS NOT NULL")
+    List<String> findHouseNumbersByWardId(Long wardId);
 
     // Analytics queries
     @Query("SELECT COUNT(h) FROM Household h WHERE h.wardId = :wardId")
     long countByWardId(Long wardId);
 
-    @Query("SELECT COUNT(h) FROM Household h WHERE h.wardId = :wardId AND h.visitStatus <> 'NOT_VISITED'")
-    long countVisitedByWardId(Long wardId);
-
-    @Query("SELECT h.rationCardType, COUNT(h) FROM Household h WHERE h.wardId = :wardId GROUP BY h.rationCardType")
-    List<Object[]> countByRationCardType(Long wardId);
+    // Every WardAnalyticsDto field in one round trip: one conditional-aggregation
+    // pass over the ward's households and one over their members
+    @Query(value = "SELECT (SELECT w.name FROM wards w WHERE w.id = :wardId), hs.*, ms.* FROM "
+            + "(SELECT COUNT(*) AS households, "
+            + "SUM(h.visit_status <> 'NOT_VISITED') AS visited, "
+            + "SUM(h.visit_status = 'VERIFIED') AS verified, "
+            + "SUM(h.ration_card_type = 'APL') AS apl, "
+            + "SUM(h.ration_card_type = 'BPL') AS bpl, "
+            + "SUM(h.ration_card_type = 'AAY') AS aay "
+            + "FROM households h WHERE h.ward_id = :wardId) hs CROSS JOIN "
+            + "(SELECT COUNT(*) AS population, "
+            + "SUM(fm.gender = 'MALE') AS male, "
+            + "SUM(fm.gender = 'FEMALE') AS female, "
+            + "SUM(fm.senior_citizen_flag = 1) AS seniors, "
+            + "SUM(fm.disability_flag = 1) AS disabled "
+            + "FROM family_members fm JOIN households h ON fm.household_id = h.id "
+            + "WHERE h.ward_id = :wardId) ms", nativeQuery = true)
+    List<Object[]> findWardAnalyticsRow(Long wardId);
 }
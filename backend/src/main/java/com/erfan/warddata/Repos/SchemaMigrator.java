@@ -0,0 +1,152 @@
+package com.erfan.warddata.Repos;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned scripts in {@code db/migration} at startup, in version
+ * order, and records each one in {@code schema_migrations} so it runs once.
+ * Scripts follow the Flyway naming ({@code V<n>__<description>.sql}).
+ * <p>
+ * Tables and columns still come from Hibernate's schema update, so this runs
+ * after the entity manager factory; the scripts own the secondary indexes.
+ * MySQL has no {@code CREATE INDEX IF NOT EXISTS}, so an index that already
+ * exists (for example one Hibernate created from an older {@code @Index}) is
+ * skipped instead of failing the migration.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    // ER_DUP_KEYNAME
+    private static final int DUPLICATE_INDEX = 1061;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String location;
+    private final boolean enabled;
+
+    public SchemaMigrator(DataSource dataSource,
+            @Value("${schema.migrations.location:classpath*:db/migration/*.sql}") String location,
+            @Value("${schema.migrations.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.location = location;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migrations (version INT PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+                + "installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum FROM schema_migrations",
+                rs -> {
+                    applied.put(rs.getInt(1), rs.getLong(2));
+                });
+
+        for (Map.Entry<Integer, Resource> entry : scripts().entrySet()) {
+            int version = entry.getKey();
+            Resource script = entry.getValue();
+            String sql = StreamUtils.copyToString(script.getInputStream(), StandardCharsets.UTF_8);
+            long checksum = checksum(sql);
+            if (applied.containsKey(version)) {
+                if (applied.get(version) != checksum) {
+                    log.warn("Migration {} was changed after it was applied; edits are not re-run",
+                            script.getFilename());
+                }
+                continue;
+            }
+            for (String statement : statements(sql)) {
+                execute(statement, script.getFilename());
+            }
+            Matcher name = SCRIPT_NAME.matcher(script.getFilename());
+            name.matches();
+            jdbcTemplate.update("INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)",
+                    version, name.group(2).replace('_', ' '), checksum);
+            log.info("Applied migration {}", script.getFilename());
+        }
+    }
+
+    private void execute(String statement, String script) {
+        try {
+            jdbcTemplate.execute(statement);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException && ((SQLException) cause).getErrorCode() == DUPLICATE_INDEX) {
+                log.info("{}: index already exists, skipped: {}", script, statement);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private TreeMap<Integer, Resource> scripts() throws IOException {
+        TreeMap<Integer, Resource> scripts = new TreeMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+            Matcher name = SCRIPT_NAME.matcher(resource.getFilename() != null ? resource.getFilename() : "");
+            if (!name.matches()) {
+                continue;
+            }
+            Resource previous = scripts.put(Integer.parseInt(name.group(1)), resource);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate migration version " + name.group(1));
+            }
+        }
+        return scripts;
+    }
+
+    // Statements end with ';' at the end of a line; lines starting with '--' are comments
+    static List<String> statements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(trimmed).append(' ');
+            if (trimmed.endsWith(";")) {
+                statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
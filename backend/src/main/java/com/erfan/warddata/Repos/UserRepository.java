@@ -14,6 +14,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     java.util.List<User> findByUserType(com.erfan.warddata.Enums.UserType userType);
 
+    long countByUserTypeAndActiveTrue(com.erfan.warddata.Enums.UserType userType);
+
     @org.springframework.data.jpa.repository.Query("SELECT u FROM User u JOIN u.assignedWards w WHERE w.id = :wardId AND u.userType = :userType")
     java.util.List<User> findByAssignedWards_IdAndUserType(
             @org.springframework.data.repository.query.Param("wardId") Long wardId,
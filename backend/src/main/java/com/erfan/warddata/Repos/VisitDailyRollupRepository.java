@@ -0,0 +1,50 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Models.VisitDailyRollup;
+import com.erfan.warddata.Models.VisitDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VisitDailyRollupRepository extends JpaRepository<VisitDailyRollup, VisitDailyRollupId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO visit_daily_rollups (ward_id, visit_date, agent_id, visits) "
+            + "VALUES (:wardId, :visitDate, :agentId, :delta) "
+            + "ON DUPLICATE KEY UPDATE visits = visits + VALUES(visits)", nativeQuery = true)
+    void addVisits(Long wardId, LocalDate visitDate, Long agentId, long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM visit_daily_rollups WHERE ward_id = :wardId", nativeQuery = true)
+    void deleteByWardId(Long wardId);
+
+    // Same bucketing as addVisits: visited or verified households by visit date and creating agent
+    @Modifying
+    @Query(value = "INSERT INTO visit_daily_rollups (ward_id, visit_date, agent_id, visits) "
+            + "SELECT h.ward_id, DATE(h.visited_at), COALESCE(h.created_by_agent_id, 0), COUNT(*) "
+            + "FROM households h WHERE h.ward_id = :wardId AND h.visited_at IS NOT NULL "
+            + "AND h.visit_status <> 'NOT_VISITED' "
+            + "GROUP BY h.ward_id, DATE(h.visited_at), COALESCE(h.created_by_agent_id, 0)", nativeQuery = true)
+    int rebuildWard(Long wardId);
+
+    @Query(value = "SELECT r.visit_date, SUM(r.visits) FROM visit_daily_rollups r "
+            + "WHERE r.ward_id = :wardId AND r.visit_date BETWEEN :from AND :to GROUP BY r.visit_date ORDER BY r.visit_date",
+            nativeQuery = true)
+    List<Object[]> sumByDayForWard(Long wardId, LocalDate from, LocalDate to);
+
+    @Query(value = "SELECT r.visit_date, SUM(r.visits) FROM visit_daily_rollups r "
+            + "WHERE r.agent_id = :agentId AND r.visit_date BETWEEN :from AND :to GROUP BY r.visit_date ORDER BY r.visit_date",
+            nativeQuery = true)
+    List<Object[]> sumByDayForAgent(Long agentId, LocalDate from, LocalDate to);
+
+    @Query(value = "SELECT r.visit_date, SUM(r.visits) FROM visit_daily_rollups r "
+            + "WHERE r.agent_id = :agentId AND r.ward_id IN (:wardIds) AND r.visit_date BETWEEN :from AND :to "
+            + "GROUP BY r.visit_date ORDER BY r.visit_date", nativeQuery = true)
+    List<Object[]> sumByDayForAgentInWards(Long agentId, Collection<Long> wardIds, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,50 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Models.WardAgeBandStats;
+import com.erfan.warddata.Models.WardAgeBandStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WardAgeBandStatsRepository extends JpaRepository<WardAgeBandStats, WardAgeBandStatsId> {
+
+    List<WardAgeBandStats> findByWardId(Long wardId);
+
+    @Modifying
+    @Query(value = "INSERT INTO ward_age_band_stats (ward_id, age_band, gender, members) "
+            + "VALUES (:wardId, :ageBand, :gender, :delta) "
+            + "ON DUPLICATE KEY UPDATE members = members + VALUES(members)", nativeQuery = true)
+    void addMembers(Long wardId, String ageBand, String gender, long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM ward_age_band_stats WHERE ward_id = :wardId", nativeQuery = true)
+    void deleteByWardIdNative(Long wardId);
+
+    // Full recount for one ward; band limits must match AgeBand
+    @Modifying
+    @Query(value = "INSERT INTO ward_age_band_stats (ward_id, age_band, gender, members) "
+            + "SELECT m.ward_id, m.age_band, m.gender, COUNT(*) FROM ("
+            + "SELECT h.ward_id, COALESCE(fm.gender, 'OTHER') AS gender, CASE "
+            + "WHEN fm.date_of_birth IS NULL THEN 'UNKNOWN' "
+            + "WHEN TIMESTAMPDIFF(YEAR, fm.date_of_birth, :asOf) >= 60 THEN 'AGE_60_PLUS' "
+            + "WHEN TIMESTAMPDIFF(YEAR, fm.date_of_birth, :asOf) >= 36 THEN 'AGE_36_59' "
+            + "WHEN TIMESTAMPDIFF(YEAR, fm.date_of_birth, :asOf) >= 18 THEN 'AGE_18_35' "
+            + "WHEN TIMESTAMPDIFF(YEAR, fm.date_of_birth, :asOf) >= 15 THEN 'AGE_15_17' "
+            + "WHEN TIMESTAMPDIFF(YEAR, fm.date_of_birth, :asOf) >= 6 THEN 'AGE_6_14' "
+            + "ELSE 'AGE_0_5' END AS age_band "
+            + "FROM family_members fm JOIN households h ON fm.household_id = h.id WHERE h.ward_id = :wardId) m "
+            + "GROUP BY m.ward_id, m.age_band, m.gender", nativeQuery = true)
+    int rebuildWard(Long wardId, LocalDate asOf);
+
+    // Members with one of the given birth dates, per ward and gender (served by the date_of_birth index)
+    @Query(value = "SELECT h.ward_id, COALESCE(fm.gender, 'OTHER'), COUNT(*) FROM family_members fm "
+            + "JOIN households h ON fm.household_id = h.id WHERE fm.date_of_birth IN (:birthDates) "
+            + "GROUP BY h.ward_id, COALESCE(fm.gender, 'OTHER')", nativeQuery = true)
+    List<Object[]> countByBirthDates(Collection<LocalDate> birthDates);
+}
@@ -0,0 +1,27 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Models.WardIncomeBucket;
+import com.erfan.warddata.Models.WardIncomeBucketId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WardIncomeBucketRepository extends JpaRepository<WardIncomeBucket, WardIncomeBucketId> {
+
+    List<WardIncomeBucket> findByWardIdIn(Collection<Long> wardIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO ward_income_buckets (ward_id, ration_card_type, bucket, households) "
+            + "VALUES (:wardId, :rationCardType, :bucket, :delta) "
+            + "ON DUPLICATE KEY UPDATE households = households + VALUES(households)", nativeQuery = true)
+    void addHouseholds(Long wardId, String rationCardType, int bucket, long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM ward_income_buckets WHERE ward_id = :wardId", nativeQuery = true)
+    void deleteByWardIdNative(Long wardId);
+}
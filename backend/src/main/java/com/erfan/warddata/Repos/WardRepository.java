@@ -2,8 +2,35 @@ package com.erfan.warddata.Repos;
 
 import com.erfan.warddata.Models.Ward;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface WardRepository extends JpaRepository<Ward, Long> {
+
+    // Everything an export depends on, in one round trip: name, row counts and last updates
+    @Query(value = "SELECT w.name, "
+            + "(SELECT COUNT(*) FROM households h WHERE h.ward_id = w.id), "
+            + "(SELECT MAX(h.updated_at) FROM households h WHERE h.ward_id = w.id), "
+            + "(SELECT COUNT(*) FROM family_members fm JOIN households h ON fm.household_id = h.id WHERE h.ward_id = w.id), "
+            + "(SELECT MAX(fm.updated_at) FROM family_members fm JOIN households h ON fm.household_id = h.id WHERE h.ward_id = w.id) "
+            + "FROM wards w WHERE w.id = :wardId", nativeQuery = true)
+    List<Object[]> findDataVersionInputs(Long wardId);
+
+    // Per-ward breakdown for the global stats snapshot, read from the ward_stats counters
+    @Query(value = "SELECT w.id, w.name, w.local_body, COALESCE(s.total_households, 0), "
+            + "COALESCE(s.visited_households, 0), COALESCE(s.total_population, 0), s.updated_at "
+            + "FROM wards w LEFT JOIN ward_stats s ON s.ward_id = w.id ORDER BY w.id", nativeQuery = true)
+    List<Object[]> findWardSummaries();
+
+    // Every ward with its full counter row, for the local-body rollups
+    @Query(value = "SELECT w.id, w.name, w.local_body, COALESCE(s.total_households, 0), "
+            + "COALESCE(s.visited_households, 0), COALESCE(s.verified_households, 0), COALESCE(s.apl_count, 0), "
+            + "COALESCE(s.bpl_count, 0), COALESCE(s.aay_count, 0), COALESCE(s.total_population, 0), "
+            + "COALESCE(s.male_count, 0), COALESCE(s.female_count, 0), COALESCE(s.senior_citizens, 0), "
+            + "COALESCE(s.disabled_persons, 0) "
+            + "FROM wards w LEFT JOIN ward_stats s ON s.ward_id = w.id ORDER BY w.id", nativeQuery = true)
+    List<Object[]> findWardStatsRows();
 }
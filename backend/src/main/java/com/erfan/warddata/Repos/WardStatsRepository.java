@@ -0,0 +1,46 @@
+package com.erfan.warddata.Repos;
+
+import com.erfan.warddata.Dto.WardStatsDelta;
+import com.erfan.warddata.Models.WardStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WardStatsRepository extends JpaRepository<WardStats, Long> {
+
+    // Atomic in-place increment; the row lock is held until the writing transaction commits
+    @Modifying
+    @Query(value = "INSERT INTO ward_stats (ward_id, total_households, visited_households, verified_households, "
+            + "apl_count, bpl_count, aay_count, total_population, male_count, female_count, senior_citizens, "
+            + "disabled_persons, updated_at) VALUES (:wardId, :#{#delta.households}, :#{#delta.visited}, "
+            + ":#{#delta.verified}, :#{#delta.apl}, :#{#delta.bpl}, :#{#delta.aay}, :#{#delta.population}, "
+            + ":#{#delta.male}, :#{#delta.female}, :#{#delta.seniors}, :#{#delta.disabled}, NOW()) "
+            + "ON DUPLICATE KEY UPDATE total_households = total_households + VALUES(total_households), "
+            + "visited_households = visited_households + VALUES(visited_households), "
+            + "verified_households = verified_households + VALUES(verified_households), "
+            + "apl_count = apl_count + VALUES(apl_count), bpl_count = bpl_count + VALUES(bpl_count), "
+            + "aay_count = aay_count + VALUES(aay_count), "
+            + "total_population = total_population + VALUES(total_population), "
+            + "male_count = male_count + VALUES(male_count), female_count = female_count + VALUES(female_count), "
+            + "senior_citizens = senior_citizens + VALUES(senior_citizens), "
+            + "disabled_persons = disabled_persons + VALUES(disabled_persons), updated_at = NOW()",
+            nativeQuery = true)
+    void applyDelta(Long wardId, WardStatsDelta delta);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO ward_stats (ward_id, total_households, visited_households, "
+            + "verified_households, apl_count, bpl_count, aay_count, total_population, male_count, female_count, "
+            + "senior_citizens, disabled_persons, updated_at) VALUES (:wardId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, NOW())",
+            nativeQuery = true)
+    void insertIfMissing(Long wardId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WardStats s WHERE s.wardId = :wardId")
+    Optional<WardStats> findByIdForUpdate(Long wardId);
+}
@@ -51,4 +51,27 @@ public class WardAccessValidator {
         // Ward Member can manage their assigned ward (e.g. create agents)
         return user.getUserType() == UserType.WARD_MEMBER && hasAccess(wardId);
     }
+
+    // Admins, or users assigned to at least one ward of the local body
+    public boolean hasLocalBodyAccess(String localBody) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            return false;
+        }
+
+        Object principal = auth.getPrincipal();
+        if (!(principal instanceof User)) {
+            return false;
+        }
+
+        User user = (User) principal;
+
+        if (user.getUserType() == UserType.SUPER_ADMIN) {
+            return true;
+        }
+
+        return localBody != null && user.getAssignedWards().stream()
+                .anyMatch(ward -> ward.getLocalBody() != null
+                        && ward.getLocalBody().trim().equalsIgnoreCase(localBody.trim()));
+    }
 }
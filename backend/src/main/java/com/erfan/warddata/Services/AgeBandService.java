@@ -0,0 +1,254 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.AgeBandCountDto;
+import com.erfan.warddata.Enums.AgeBand;
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Models.AgeBandRollState;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Models.WardAgeBandStats;
+import com.erfan.warddata.Repos.AgeBandRollStateRepository;
+import com.erfan.warddata.Repos.WardAgeBandStatsRepository;
+import com.erfan.warddata.Repos.WardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the per-ward age band histogram in {@code ward_age_band_stats}.
+ * Counters are kept as of the date in {@code age_band_roll_state}: member
+ * writes place the member in the band for that date, and the nightly roll
+ * advances the date one day at a time, moving only the members whose birthday
+ * crosses a band boundary. The date is claimed in the same transaction as the
+ * moves, so with several replicas running the cron each day is rolled once.
+ */
+@Service
+public class AgeBandService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgeBandService.class);
+
+    private final WardAgeBandStatsRepository ageBandRepository;
+    private final AgeBandRollStateRepository rollStateRepository;
+    private final WardRepository wardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AgeBandService(WardAgeBandStatsRepository ageBandRepository,
+            AgeBandRollStateRepository rollStateRepository, WardRepository wardRepository,
+            PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.ageBandRepository = ageBandRepository;
+        this.rollStateRepository = rollStateRepository;
+        this.wardRepository = wardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Moves a member between band/gender counters. Pass {@code null} old values
+     * with {@code isNew} for a new member.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void memberChanged(Long wardId, boolean isNew, Date oldDateOfBirth, Gender oldGender,
+            Date newDateOfBirth, Gender newGender) {
+        LocalDate date = rolledThrough();
+        AgeBand newBand = AgeBand.of(toLocalDate(newDateOfBirth), date);
+        String newGenderKey = genderKey(newGender);
+        if (!isNew) {
+            AgeBand oldBand = AgeBand.of(toLocalDate(oldDateOfBirth), date);
+            String oldGenderKey = genderKey(oldGender);
+            if (oldBand == newBand && oldGenderKey.equals(newGenderKey)) {
+                return;
+            }
+            ageBandRepository.addMembers(wardId, oldBand.name(), oldGenderKey, -1);
+        }
+        ageBandRepository.addMembers(wardId, newBand.name(), newGenderKey, 1);
+    }
+
+    /**
+     * Adds several new members at once, with one counter update per band and
+     * gender rather than per member.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void membersAdded(Long wardId, Collection<FamilyMember> members) {
+        LocalDate date = rolledThrough();
+        Map<String, Long> counts = new HashMap<>();
+        for (FamilyMember member : members) {
+            AgeBand band = AgeBand.of(toLocalDate(member.getDateOfBirth()), date);
+            counts.merge(band.name() + ":" + genderKey(member.getGender()), 1L, Long::sum);
+        }
+        counts.forEach((key, count) -> {
+            String[] parts = key.split(":");
+            ageBandRepository.addMembers(wardId, parts[0], parts[1], count);
+        });
+    }
+
+    // Read under a shared lock, so a write never places a member against a day a
+    // running roll is moving away from; the lock is held until the write commits
+    private LocalDate rolledThrough() {
+        return rollStateRepository.findByIdForShare(AgeBandRollState.ID)
+                .map(AgeBandRollState::getRolledThrough)
+                .orElseGet(LocalDate::now);
+    }
+
+    public List<AgeBandCountDto> getHistogram(Long wardId) {
+        List<AgeBandCountDto> histogram = emptyHistogram();
+        ageBandRepository.findByWardId(wardId).forEach(row -> add(histogram, row));
+        return histogram;
+    }
+
+    /**
+     * Histograms of every ward from a single read of the counter table.
+     */
+    public Map<Long, List<AgeBandCountDto>> getAllHistograms() {
+        Map<Long, List<AgeBandCountDto>> histograms = new HashMap<>();
+        for (WardAgeBandStats row : ageBandRepository.findAll()) {
+            add(histograms.computeIfAbsent(row.getWardId(), id -> emptyHistogram()), row);
+        }
+        return histograms;
+    }
+
+    // One entry per band, in AgeBand order
+    public static List<AgeBandCountDto> emptyHistogram() {
+        List<AgeBandCountDto> histogram = new ArrayList<>();
+        for (AgeBand band : AgeBand.values()) {
+            histogram.add(new AgeBandCountDto(band, band.getLabel(), 0, 0, 0, 0));
+        }
+        return histogram;
+    }
+
+    private static void add(List<AgeBandCountDto> histogram, WardAgeBandStats row) {
+        AgeBandCountDto dto = histogram.get(row.getAgeBand().ordinal());
+        if (row.getGender() == Gender.MALE)
+            dto.setMale(dto.getMale() + row.getMembers());
+        else if (row.getGender() == Gender.FEMALE)
+            dto.setFemale(dto.getFemale() + row.getMembers());
+        else
+            dto.setOther(dto.getOther() + row.getMembers());
+        dto.setTotal(dto.getTotal() + row.getMembers());
+    }
+
+    // Rebuilt at startup to seed the counters and correct any drift
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuildAll();
+        } catch (RuntimeException e) {
+            log.error("Startup rebuild of age bands failed", e);
+        }
+    }
+
+    /**
+     * Recounts every ward from the members' dates of birth as of the stored
+     * roll date, then rolls forward to today. Each ward is recounted while
+     * holding the roll state row, so a roll on another replica cannot move
+     * members in between.
+     */
+    public void rebuildAll() {
+        transactionTemplate.executeWithoutResult(
+                status -> rollStateRepository.insertIfMissing(AgeBandRollState.ID, LocalDate.now()));
+        List<Ward> wards = wardRepository.findAll();
+        for (Ward ward : wards) {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDate asOf = rollStateRepository.findByIdForUpdate(AgeBandRollState.ID)
+                        .orElseThrow(() -> new IllegalStateException("Age band roll state missing"))
+                        .getRolledThrough();
+                ageBandRepository.deleteByWardIdNative(ward.getId());
+                ageBandRepository.rebuildWard(ward.getId(), asOf);
+            });
+            eventPublisher.publishEvent(new WardDataChangedEvent(ward.getId()));
+        }
+        log.info("Rebuilt age bands of {} wards", wards.size());
+        rollBirthdays();
+    }
+
+    /**
+     * Advances the histogram to today. For every day since the last roll, only
+     * members turning exactly the lower age of a band are moved up, found through
+     * the date_of_birth index.
+     */
+    @Scheduled(cron = "${analytics.age-bands.roll-cron:0 5 0 * * *}")
+    public void rollBirthdays() {
+        LocalDate today = LocalDate.now();
+        Set<Long> touchedWards = new HashSet<>();
+        LocalDate rolledThrough = rollStateRepository.findById(AgeBandRollState.ID)
+                .map(AgeBandRollState::getRolledThrough)
+                .orElse(today);
+        for (LocalDate day = rolledThrough.plusDays(1); !day.isAfter(today); day = day.plusDays(1)) {
+            LocalDate rollDay = day;
+            Boolean rolled = transactionTemplate.execute(status -> {
+                // Claiming the day comes first; its row lock keeps member writes waiting until the moves commit
+                if (rollStateRepository.advance(AgeBandRollState.ID, rollDay.minusDays(1), rollDay) == 0) {
+                    return false;
+                }
+                for (AgeBand band : AgeBand.values()) {
+                    if (band.getMinAge() <= 0) {
+                        continue;
+                    }
+                    List<LocalDate> birthDates = birthDatesTurning(band.getMinAge(), rollDay);
+                    if (birthDates.isEmpty()) {
+                        continue;
+                    }
+                    for (Object[] row : ageBandRepository.countByBirthDates(birthDates)) {
+                        Long wardId = ((Number) row[0]).longValue();
+                        String gender = (String) row[1];
+                        long members = ((Number) row[2]).longValue();
+                        ageBandRepository.addMembers(wardId, AgeBand.ofAge(band.getMinAge() - 1).name(), gender,
+                                -members);
+                        ageBandRepository.addMembers(wardId, band.name(), gender, members);
+                        touchedWards.add(wardId);
+                    }
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(rolled)) {
+                // Another replica rolled this day and carries on from there
+                break;
+            }
+        }
+        touchedWards.forEach(wardId -> eventPublisher.publishEvent(new WardDataChangedEvent(wardId)));
+    }
+
+    /**
+     * Birth dates whose age becomes {@code age} on {@code day}. Usually one date,
+     * but 29 February birthdays are reached on 1 March in common years.
+     */
+    static List<LocalDate> birthDatesTurning(int age, LocalDate day) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate candidate = day.minusYears(age);
+        for (int i = 0; i < 3; i++) {
+            LocalDate dob = candidate.minusDays(i);
+            if (Period.between(dob, day).getYears() == age
+                    && Period.between(dob, day.minusDays(1)).getYears() == age - 1) {
+                dates.add(dob);
+            }
+        }
+        return dates;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    private static String genderKey(Gender gender) {
+        return (gender != null ? gender : Gender.OTHER).name();
+    }
+}
@@ -0,0 +1,61 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.AnalyticsCacheStatsDto;
+import com.erfan.warddata.Dto.WardAnalyticsDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-memory cache of ward dashboards. An entry is dropped as soon as a
+ * write to its ward commits, and otherwise expires after a TTL. Concurrent
+ * misses for one ward wait for a single computation instead of each querying
+ * the database.
+ */
+@Service
+public class AnalyticsCacheService {
+
+    private final AnalyticsService analyticsService;
+    private final Cache<Long, WardAnalyticsDto> cache;
+
+    public AnalyticsCacheService(AnalyticsService analyticsService,
+            @Value("${analytics.cache.max-wards:1000}") long maxWards,
+            @Value("${analytics.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.analyticsService = analyticsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxWards)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public WardAnalyticsDto getWardAnalytics(Long wardId) {
+        return cache.get(wardId, analyticsService::getWardAnalytics);
+    }
+
+    // After commit only, so a concurrent miss cannot reload the pre-write numbers.
+    // An invalidation that races an in-flight load waits for it and then drops it.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWardDataChanged(WardDataChangedEvent event) {
+        cache.invalidate(event.getWardId());
+    }
+
+    public AnalyticsCacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        AnalyticsCacheStatsDto dto = new AnalyticsCacheStatsDto();
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setLoadCount(stats.loadCount());
+        dto.setAverageLoadMillis(stats.averageLoadPenalty() / 1_000_000.0);
+        return dto;
+    }
+}
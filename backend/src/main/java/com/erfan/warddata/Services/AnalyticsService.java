@@ -1,12 +1,23 @@
 package com.erfan.warddata.Services;
 
+import com.erfan.warddata.Dto.AgeBandCountDto;
+import com.erfan.warddata.Dto.GlobalStatsDto;
 import com.erfan.warddata.Dto.WardAnalyticsDto;
-import com.erfan.warddata.Enums.Gender;
-import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Dto.WardSummaryDto;
+import com.erfan.warddata.Enums.UserType;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Models.WardStats;
 import com.erfan.warddata.Repos.FamilyMemberRepository;
 import com.erfan.warddata.Repos.HouseholdRepository;
+import com.erfan.warddata.Repos.WardStatsRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -15,66 +26,134 @@ public class AnalyticsService {
     private final FamilyMemberRepository familyMemberRepository;
     private final com.erfan.warddata.Repos.WardRepository wardRepository;
     private final com.erfan.warddata.Repos.UserRepository userRepository;
+    private final WardStatsRepository wardStatsRepository;
+    private final AgeBandService ageBandService;
+
+    private volatile GlobalStatsDto globalStats;
 
     public AnalyticsService(HouseholdRepository householdRepository,
             FamilyMemberRepository familyMemberRepository,
             com.erfan.warddata.Repos.WardRepository wardRepository,
-            com.erfan.warddata.Repos.UserRepository userRepository) {
+            com.erfan.warddata.Repos.UserRepository userRepository,
+            WardStatsRepository wardStatsRepository, AgeBandService ageBandService) {
         this.householdRepository = householdRepository;
         this.familyMemberRepository = familyMemberRepository;
         this.wardRepository = wardRepository;
         this.userRepository = userRepository;
+        this.wardStatsRepository = wardStatsRepository;
+        this.ageBandService = ageBandService;
+    }
+
+    /**
+     * Returns the latest global stats snapshot. The snapshot is rebuilt in the
+     * background, so the admin home page never waits on table counts.
+     */
+    public GlobalStatsDto getGlobalStats() {
+        if (globalStats == null) {
+            refreshGlobalStats();
+        }
+        return globalStats;
     }
 
-    public com.erfan.warddata.Dto.GlobalStatsDto getGlobalStats() {
-        com.erfan.warddata.Dto.GlobalStatsDto dto = new com.erfan.warddata.Dto.GlobalStatsDto();
+    @Scheduled(fixedDelayString = "${analytics.global-stats.refresh-ms:60000}")
+    public void refreshGlobalStats() {
+        GlobalStatsDto dto = new GlobalStatsDto();
         dto.setTotalWards(wardRepository.count());
         dto.setTotalUsers(userRepository.count());
         dto.setTotalHouseholds(householdRepository.count());
         dto.setTotalPopulation(familyMemberRepository.count());
-        dto.setActiveAgents(userRepository.findByUserType(com.erfan.warddata.Enums.UserType.AGENT).size()); // Simple
-                                                                                                            // approach
-        return dto;
+        dto.setActiveAgents(userRepository.countByUserTypeAndActiveTrue(UserType.AGENT));
+
+        List<WardSummaryDto> wards = new ArrayList<>();
+        for (Object[] row : wardRepository.findWardSummaries()) {
+            WardSummaryDto ward = new WardSummaryDto();
+            ward.setWardId(((Number) row[0]).longValue());
+            ward.setWardName((String) row[1]);
+            ward.setLocalBody((String) row[2]);
+            ward.setTotalHouseholds(count(row[3]));
+            ward.setVisitedHouseholds(count(row[4]));
+            ward.setTotalPopulation(count(row[5]));
+            ward.setUpdatedAt(toInstant(row[6]));
+            wards.add(ward);
+        }
+        dto.setWards(wards);
+        dto.setGeneratedAt(Instant.now());
+
+        globalStats = dto;
     }
 
+    /**
+     * Reads the dashboard from the ward's {@code ward_stats} counters. Wards that
+     * have no counter row yet (before the first reconcile) are counted live.
+     */
     public WardAnalyticsDto getWardAnalytics(Long wardId) {
+        WardStats stats = wardStatsRepository.findById(wardId).orElse(null);
+        if (stats == null) {
+            return computeWardAnalytics(wardId);
+        }
+        String wardName = wardRepository.findById(wardId).map(Ward::getName).orElse(null);
+        return fromStats(stats, wardName, ageBandService.getHistogram(wardId));
+    }
+
+    public static WardAnalyticsDto fromStats(WardStats stats, String wardName, List<AgeBandCountDto> ageBands) {
         WardAnalyticsDto dto = new WardAnalyticsDto();
-        wardRepository.findById(wardId).ifPresent(w -> dto.setWardName(w.getName()));
+        dto.setWardName(wardName);
+        dto.setTotalHouseholds(stats.getTotalHouseholds());
+        dto.setVisitedHouseholds(stats.getVisitedHouseholds());
+        dto.setNotVisitedHouseholds(stats.getTotalHouseholds() - stats.getVisitedHouseholds());
+        dto.setVerifiedHouseholds(stats.getVerifiedHouseholds());
+        dto.setAplCount(stats.getAplCount());
+        dto.setBplCount(stats.getBplCount());
+        dto.setAayCount(stats.getAayCount());
+        dto.setTotalPopulation(stats.getTotalPopulation());
+        dto.setMaleCount(stats.getMaleCount());
+        dto.setFemaleCount(stats.getFemaleCount());
+        dto.setOtherGenderCount(stats.getTotalPopulation() - stats.getMaleCount() - stats.getFemaleCount());
+        dto.setSeniorCitizens(stats.getSeniorCitizens());
+        dto.setDisabledPersons(stats.getDisabledPersons());
+        dto.setAgeBands(ageBands);
+        return dto;
+    }
 
-        dto.setTotalHouseholds(householdRepository.countByWardId(wardId));
-        dto.setVisitedHouseholds(householdRepository.countVisitedByWardId(wardId));
+    /**
+     * Computes the whole dashboard from the base tables with a single aggregation
+     * query, so adding a metric adds a column rather than another round trip.
+     */
+    public WardAnalyticsDto computeWardAnalytics(Long wardId) {
+        Object[] row = householdRepository.findWardAnalyticsRow(wardId).get(0);
+        WardAnalyticsDto dto = new WardAnalyticsDto();
+        dto.setWardName((String) row[0]);
+
+        dto.setTotalHouseholds(count(row[1]));
+        dto.setVisitedHouseholds(count(row[2]));
         dto.setNotVisitedHouseholds(dto.getTotalHouseholds() - dto.getVisitedHouseholds());
+        dto.setVerifiedHouseholds(count(row[3]));
+        dto.setAplCount(count(row[4]));
+        dto.setBplCount(count(row[5]));
+        dto.setAayCount(count(row[6]));
 
-        List<Object[]> rationStats = householdRepository.countByRationCardType(wardId);
-        for (Object[] row : rationStats) {
-            RationCardType type = (RationCardType) row[0];
-            long count = (long) row[1];
-            if (type == RationCardType.APL)
-                dto.setAplCount(count);
-            else if (type == RationCardType.BPL)
-                dto.setBplCount(count);
-            else if (type == RationCardType.AAY)
-                dto.setAayCount(count);
-        }
+        dto.setTotalPopulation(count(row[7]));
+        dto.setMaleCount(count(row[8]));
+        dto.setFemaleCount(count(row[9]));
+        // Members without a recorded gender are counted with OTHER
+        dto.setOtherGenderCount(dto.getTotalPopulation() - dto.getMaleCount() - dto.getFemaleCount());
+        dto.setSeniorCitizens(count(row[10]));
+        dto.setDisabledPersons(count(row[11]));
+        dto.setAgeBands(ageBandService.getHistogram(wardId));
 
-        List<Object[]> genderStats = familyMemberRepository.countByGenderAndWardId(wardId);
-        long totalPop = 0;
-        for (Object[] row : genderStats) {
-            Gender gender = (Gender) row[0];
-            long count = (long) row[1];
-            totalPop += count;
-            if (gender == Gender.MALE)
-                dto.setMaleCount(count);
-            else if (gender == Gender.FEMALE)
-                dto.setFemaleCount(count);
-            else
-                dto.setOtherGenderCount(count);
-        }
-        dto.setTotalPopulation(totalPop);
+        return dto;
+    }
 
-        dto.setSeniorCitizens(familyMemberRepository.countSeniorsByWardId(wardId));
-        dto.setDisabledPersons(familyMemberRepository.countDisabledByWardId(wardId));
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp)
+            return ((Timestamp) value).toInstant();
+        if (value instanceof LocalDateTime)
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        return null;
+    }
 
-        return dto;
+    // SUM over no rows is NULL, and MySQL returns it as a DECIMAL otherwise
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
     }
 }
@@ -0,0 +1,229 @@
+package com.erfan.warddata.Services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live ward dashboards over Server-Sent Events. Subscribers get a full
+ * {@code snapshot} first and then {@code delta} events with only the fields
+ * that changed. Commits to a ward are debounced into one push, computed once
+ * and queued for every subscriber of that ward. Events are written outside the
+ * feed lock by a sender pool, one thread per client at a time, so a slow client
+ * delays only itself. Emitters are async requests, so idle connections hold no
+ * servlet thread.
+ */
+@Service
+public class DashboardFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardFeedService.class);
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {
+    };
+
+    private final AnalyticsCacheService analyticsCacheService;
+    private final ObjectMapper objectMapper;
+    private final long debounceMillis;
+    private final long emitterTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    private final Map<Long, WardFeed> feeds = new ConcurrentHashMap<>();
+
+    public DashboardFeedService(AnalyticsCacheService analyticsCacheService, ObjectMapper objectMapper,
+            @Value("${dashboard.feed.debounce-ms:2000}") long debounceMillis,
+            @Value("${dashboard.feed.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+            @Value("${dashboard.feed.heartbeat-ms:25000}") long heartbeatMillis) {
+        this.analyticsCacheService = analyticsCacheService;
+        this.objectMapper = objectMapper;
+        this.debounceMillis = debounceMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "dashboard-feed-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Client writes block on slow connections, so they run apart from the scheduler;
+        // idle sender threads exit after a minute
+        AtomicInteger senderCount = new AtomicInteger();
+        this.sender = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "dashboard-send-" + senderCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Comments keep proxies from closing idle streams and reveal clients that went away
+        this.scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long wardId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        WardFeed feed = feeds.computeIfAbsent(wardId, id -> new WardFeed());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> unsubscribe(wardId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(wardId, subscriber));
+        emitter.onError(e -> unsubscribe(wardId, subscriber));
+
+        synchronized (feed) {
+            // Existing subscribers all hold lastSent, so a newcomer starts from it and the next push moves
+            // everyone on together. Feeds without subscribers are not pushed, so their baseline is re-read.
+            if (feed.subscribers.isEmpty() || feed.lastSent == null) {
+                feed.lastSent = currentFields(wardId);
+            }
+            subscriber.outbox.add(SseEmitter.event().name("snapshot").data(feed.lastSent));
+            feed.subscribers.add(subscriber);
+        }
+        // Only the newcomer's own snapshot is written on the request thread
+        drain(feed, subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWardDataChanged(WardDataChangedEvent event) {
+        Long wardId = event.getWardId();
+        WardFeed feed = feeds.get(wardId);
+        if (feed == null) {
+            return;
+        }
+        synchronized (feed) {
+            if (feed.pending == null && !feed.subscribers.isEmpty()) {
+                feed.pending = scheduler.schedule(() -> push(wardId, feed), debounceMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void push(Long wardId, WardFeed feed) {
+        try {
+            synchronized (feed) {
+                feed.pending = null;
+                if (!feed.subscribers.isEmpty()) {
+                    queueChanges(feed, currentFields(wardId));
+                }
+            }
+            flush(feed);
+        } catch (RuntimeException e) {
+            log.warn("Dashboard push for ward {} failed", wardId, e);
+        }
+    }
+
+    // Caller holds the feed lock. Only queues the delta; nothing is written to clients here.
+    private void queueChanges(WardFeed feed, Map<String, Object> current) {
+        if (feed.lastSent != null) {
+            Map<String, Object> changes = new LinkedHashMap<>();
+            current.forEach((field, value) -> {
+                if (!Objects.equals(value, feed.lastSent.get(field))) {
+                    changes.put(field, value);
+                }
+            });
+            if (!changes.isEmpty()) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name("delta").data(changes);
+                feed.subscribers.forEach(subscriber -> subscriber.outbox.add(event));
+            }
+        }
+        feed.lastSent = current;
+    }
+
+    // Hands subscribers with queued events to the sender pool, so a slow client never
+    // holds up the scheduler or the other subscribers
+    private void flush(WardFeed feed) {
+        for (Subscriber subscriber : feed.subscribers) {
+            if (!subscriber.outbox.isEmpty() && !subscriber.draining.get()) {
+                sender.execute(() -> drain(feed, subscriber));
+            }
+        }
+    }
+
+    // Writes queued events in order. A thread that finds another one already draining
+    // leaves its events to it, so each client is written by one thread at a time.
+    private void drain(WardFeed feed, Subscriber subscriber) {
+        while (!subscriber.outbox.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = subscriber.outbox.poll()) != null) {
+                    subscriber.emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                feed.subscribers.remove(subscriber);
+                subscriber.outbox.clear();
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        feeds.values().forEach(feed -> {
+            // Clients still working through queued events need no keep-alive
+            for (Subscriber subscriber : feed.subscribers) {
+                if (subscriber.outbox.isEmpty()) {
+                    subscriber.outbox.add(SseEmitter.event().comment("keep-alive"));
+                }
+            }
+            flush(feed);
+        });
+    }
+
+    // Empty feeds stay registered (at most one per ward), so a subscriber can never
+    // join a feed that is concurrently being dropped
+    private void unsubscribe(Long wardId, Subscriber subscriber) {
+        WardFeed feed = feeds.get(wardId);
+        if (feed != null) {
+            feed.subscribers.remove(subscriber);
+        }
+    }
+
+    private Map<String, Object> currentFields(Long wardId) {
+        return objectMapper.convertValue(analyticsCacheService.getWardAnalytics(wardId), FIELDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        feeds.values().forEach(feed -> feed.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private static class WardFeed {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private Map<String, Object> lastSent;
+        private ScheduledFuture<?> pending;
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
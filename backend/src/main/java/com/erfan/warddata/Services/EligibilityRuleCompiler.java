@@ -0,0 +1,291 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.EligibilityConditionDto;
+import com.erfan.warddata.Dto.EligibilityRuleDto;
+import com.erfan.warddata.Dto.MemberClauseDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compiles eligibility rules into plain predicates once, before the ward is
+ * scanned. Field names, operators and values are checked and converted here,
+ * so evaluating a household is only getter calls and comparisons.
+ * <p>
+ * Conditions follow SQL semantics: a missing value fails every operator except
+ * {@code isNull}, and yes/no flags that were never set count as false. Text
+ * comparisons ignore case and surrounding spaces.
+ */
+final class EligibilityRuleCompiler {
+
+    private enum FieldType {
+        TEXT, NUMBER, FLAG
+    }
+
+    private static final class Field<T> {
+        private final FieldType type;
+        private final Function<T, Object> getter;
+
+        Field(FieldType type, Function<T, Object> getter) {
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+
+    private static final Map<String, Field<HouseholdFacts>> HOUSEHOLD_FIELDS = new HashMap<>();
+    private static final Map<String, Field<MemberFacts>> MEMBER_FIELDS = new HashMap<>();
+
+    static {
+        HOUSEHOLD_FIELDS.put("rationCardType", new Field<>(FieldType.TEXT, h -> h.rationCardType));
+        HOUSEHOLD_FIELDS.put("visitStatus", new Field<>(FieldType.TEXT, h -> h.visitStatus));
+        HOUSEHOLD_FIELDS.put("houseNumber", new Field<>(FieldType.TEXT, h -> h.houseNumber));
+        HOUSEHOLD_FIELDS.put("landmark", new Field<>(FieldType.TEXT, h -> h.landmark));
+        HOUSEHOLD_FIELDS.put("memberCount", new Field<>(FieldType.NUMBER, h -> BigDecimal.valueOf(h.members.size())));
+        HOUSEHOLD_FIELDS.put("monthlyIncome", new Field<>(FieldType.NUMBER, HouseholdFacts::income));
+
+        MEMBER_FIELDS.put("gender", new Field<>(FieldType.TEXT, m -> m.gender));
+        MEMBER_FIELDS.put("age", new Field<>(FieldType.NUMBER, m -> m.age != null ? BigDecimal.valueOf(m.age) : null));
+        MEMBER_FIELDS.put("monthlyIncome", new Field<>(FieldType.NUMBER, m -> m.monthlyIncome));
+        MEMBER_FIELDS.put("disabilityFlag", new Field<>(FieldType.FLAG, m -> m.disabilityFlag));
+        MEMBER_FIELDS.put("seniorCitizenFlag", new Field<>(FieldType.FLAG, m -> m.seniorCitizenFlag));
+        MEMBER_FIELDS.put("occupation", new Field<>(FieldType.TEXT, m -> m.occupation));
+        MEMBER_FIELDS.put("education", new Field<>(FieldType.TEXT, m -> m.education));
+        MEMBER_FIELDS.put("relationshipToHead", new Field<>(FieldType.TEXT, m -> m.relationshipToHead));
+    }
+
+    private EligibilityRuleCompiler() {
+    }
+
+    static Predicate<HouseholdFacts> compile(EligibilityRuleDto rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule is required");
+        }
+        Predicate<HouseholdFacts> predicate = h -> true;
+        if (rule.getHousehold() != null) {
+            for (EligibilityConditionDto condition : rule.getHousehold()) {
+                predicate = predicate.and(condition(condition, HOUSEHOLD_FIELDS, "household"));
+            }
+        }
+        if (rule.getMembers() != null) {
+            for (MemberClauseDto clause : rule.getMembers()) {
+                predicate = predicate.and(memberClause(clause));
+            }
+        }
+        return predicate;
+    }
+
+    private static Predicate<HouseholdFacts> memberClause(MemberClauseDto clause) {
+        Predicate<MemberFacts> member = m -> true;
+        if (clause.getWhere() != null) {
+            for (EligibilityConditionDto condition : clause.getWhere()) {
+                member = member.and(condition(condition, MEMBER_FIELDS, "member"));
+            }
+        }
+        Predicate<MemberFacts> matches = member;
+        String quantifier = clause.getQuantifier() != null ? clause.getQuantifier().toUpperCase(Locale.ROOT) : "ANY";
+        switch (quantifier) {
+            case "ANY":
+                int minCount = clause.getMinCount() != null ? clause.getMinCount() : 1;
+                if (minCount < 1) {
+                    throw new IllegalArgumentException("minCount must be at least 1");
+                }
+                return h -> h.members.stream().filter(matches).limit(minCount).count() >= minCount;
+            case "NONE":
+                return h -> h.members.stream().noneMatch(matches);
+            case "ALL":
+                // A household without members has nobody to satisfy the clause
+                return h -> !h.members.isEmpty() && h.members.stream().allMatch(matches);
+            default:
+                throw new IllegalArgumentException("quantifier must be ANY, NONE or ALL");
+        }
+    }
+
+    private static <T> Predicate<T> condition(EligibilityConditionDto condition, Map<String, Field<T>> fields,
+            String scope) {
+        Field<T> field = fields.get(condition.getField());
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown " + scope + " field '" + condition.getField()
+                    + "', expected one of " + fields.keySet());
+        }
+        Function<T, Object> getter = field.getter;
+        String op = condition.getOp() != null ? condition.getOp() : "eq";
+        switch (op) {
+            case "isNull":
+                return t -> getter.apply(t) == null;
+            case "notNull":
+                return t -> getter.apply(t) != null;
+            default:
+                break;
+        }
+
+        switch (field.type) {
+            case FLAG: {
+                boolean expected = flag(condition.getValue());
+                if (op.equals("eq")) {
+                    return t -> Boolean.TRUE.equals(getter.apply(t)) == expected;
+                }
+                if (op.equals("ne")) {
+                    return t -> Boolean.TRUE.equals(getter.apply(t)) != expected;
+                }
+                break;
+            }
+            case NUMBER: {
+                if (op.equals("in") || op.equals("notIn")) {
+                    List<BigDecimal> values = new ArrayList<>();
+                    for (Object value : list(condition.getValue())) {
+                        values.add(number(value));
+                    }
+                    boolean in = op.equals("in");
+                    return t -> {
+                        BigDecimal actual = (BigDecimal) getter.apply(t);
+                        return actual != null && values.stream().anyMatch(v -> v.compareTo(actual) == 0) == in;
+                    };
+                }
+                BigDecimal expected = number(condition.getValue());
+                Predicate<Integer> test = comparison(op);
+                if (test != null) {
+                    return t -> {
+                        BigDecimal actual = (BigDecimal) getter.apply(t);
+                        return actual != null && test.test(actual.compareTo(expected));
+                    };
+                }
+                break;
+            }
+            case TEXT: {
+                if (op.equals("in") || op.equals("notIn")) {
+                    Set<String> values = new HashSet<>();
+                    for (Object value : list(condition.getValue())) {
+                        values.add(text(value));
+                    }
+                    boolean in = op.equals("in");
+                    return t -> {
+                        Object actual = getter.apply(t);
+                        return actual != null && values.contains(text(actual)) == in;
+                    };
+                }
+                String expected = text(condition.getValue());
+                if (op.equals("contains")) {
+                    return t -> {
+                        Object actual = getter.apply(t);
+                        return actual != null && text(actual).contains(expected);
+                    };
+                }
+                if (op.equals("eq") || op.equals("ne")) {
+                    boolean eq = op.equals("eq");
+                    return t -> {
+                        Object actual = getter.apply(t);
+                        return actual != null && text(actual).equals(expected) == eq;
+                    };
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Operator '" + op + "' is not supported for " + scope + " field '"
+                + condition.getField() + "'");
+    }
+
+    private static Predicate<Integer> comparison(String op) {
+        switch (op) {
+            case "eq":
+                return c -> c == 0;
+            case "ne":
+                return c -> c != 0;
+            case "gt":
+                return c -> c > 0;
+            case "gte":
+                return c -> c >= 0;
+            case "lt":
+                return c -> c < 0;
+            case "lte":
+                return c -> c <= 0;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean flag(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof String && ("true".equalsIgnoreCase((String) value)
+                || "false".equalsIgnoreCase((String) value))) {
+            return Boolean.parseBoolean((String) value);
+        }
+        throw new IllegalArgumentException("Expected true or false, got " + value);
+    }
+
+    private static BigDecimal number(Object value) {
+        if (value instanceof Number || value instanceof String) {
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("Expected a number, got " + value);
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("A value is required");
+        }
+        return value.toString().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Collection<?> list(Object value) {
+        if (!(value instanceof Collection) || ((Collection<?>) value).isEmpty()) {
+            throw new IllegalArgumentException("in / notIn need a non-empty list of values");
+        }
+        return (Collection<?>) value;
+    }
+
+    /**
+     * One household and its members as read from the ward scan.
+     */
+    static final class HouseholdFacts {
+        Long id;
+        String houseNumber;
+        String landmark;
+        String rationCardType;
+        String visitStatus;
+        final List<MemberFacts> members = new ArrayList<>();
+
+        BigDecimal income() {
+            BigDecimal total = BigDecimal.ZERO;
+            for (MemberFacts member : members) {
+                if (member.monthlyIncome != null) {
+                    total = total.add(member.monthlyIncome);
+                }
+            }
+            return total;
+        }
+    }
+
+    static final class MemberFacts {
+        String gender;
+        Integer age;
+        BigDecimal monthlyIncome;
+        Boolean disabilityFlag;
+        Boolean seniorCitizenFlag;
+        String occupation;
+        String education;
+        String relationshipToHead;
+
+        static Integer ageOn(LocalDate dateOfBirth, LocalDate today) {
+            return dateOfBirth != null ? Period.between(dateOfBirth, today).getYears() : null;
+        }
+    }
+}
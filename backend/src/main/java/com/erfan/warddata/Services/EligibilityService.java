@@ -0,0 +1,175 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.EligibilityResultDto;
+import com.erfan.warddata.Dto.EligibilityRuleDto;
+import com.erfan.warddata.Dto.EligibleHouseholdDto;
+import com.erfan.warddata.Dto.WardDataVersion;
+import com.erfan.warddata.Repos.ExportCursorRepository;
+import com.erfan.warddata.Services.EligibilityRuleCompiler.HouseholdFacts;
+import com.erfan.warddata.Services.EligibilityRuleCompiler.MemberFacts;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates welfare eligibility rules over a whole ward. The rule is compiled
+ * into predicates once, then the ward's households and members are read in a
+ * single pass off the JDBC cursor, one household at a time. Results are cached
+ * per ward, rule, ward data version and day, so repeating a rule on an
+ * unchanged ward costs one version lookup.
+ */
+@Service
+public class EligibilityService {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("household_id", "house_number", "landmark", "ration_card_type", "members", "monthly_income")
+            .build();
+
+    private final ExportCursorRepository exportCursorRepository;
+    private final ExportCacheService exportCacheService;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EligibilityResultDto> results;
+
+    public EligibilityService(ExportCursorRepository exportCursorRepository, ExportCacheService exportCacheService,
+            ObjectMapper objectMapper, @Value("${eligibility.cache.max-households:200000}") long maxHouseholds) {
+        this.exportCursorRepository = exportCursorRepository;
+        this.exportCacheService = exportCacheService;
+        this.objectMapper = objectMapper;
+        // A broad rule keeps most of a ward, a narrow one a handful, so the bound is on
+        // cached households rather than results; the 1 keeps empty results evictable
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(maxHouseholds)
+                .<String, EligibilityResultDto>weigher((key, result) -> 1 + result.getHouseholds().size())
+                .build();
+    }
+
+    public EligibilityResultDto evaluate(Long wardId, EligibilityRuleDto rule) {
+        Predicate<HouseholdFacts> predicate = EligibilityRuleCompiler.compile(rule);
+        WardDataVersion version = exportCacheService.getWardDataVersion(wardId);
+        // Ages depend on the day as well as the data, so both the version and the
+        // evaluation date are in the key; stale entries are never read again
+        LocalDate today = LocalDate.now();
+        String key = wardId + ":" + version.getVersion() + ":" + today + ":" + canonical(rule);
+        return results.get(key, k -> scan(wardId, version.getVersion(), today, rule.getName(), predicate));
+    }
+
+    public void writeCsv(EligibilityResultDto result, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // Not closed: the caller owns the underlying stream
+        CSVPrinter printer = new CSVPrinter(writer, CSV_FORMAT);
+        for (EligibleHouseholdDto household : result.getHouseholds()) {
+            printer.printRecord(household.getHouseholdId(), household.getHouseNumber(), household.getLandmark(),
+                    household.getRationCardType(), household.getMemberCount(), household.getMonthlyIncome());
+        }
+        printer.flush();
+    }
+
+    private EligibilityResultDto scan(Long wardId, String version, LocalDate today, String ruleName,
+            Predicate<HouseholdFacts> predicate) {
+        RuleRowHandler handler = new RuleRowHandler(predicate, today);
+        exportCursorRepository.streamWardHouseholdMembers(wardId, handler);
+        handler.finish();
+
+        EligibilityResultDto dto = new EligibilityResultDto();
+        dto.setRuleName(ruleName);
+        dto.setWardId(wardId);
+        dto.setDataVersion(version);
+        dto.setEvaluatedAt(Instant.now());
+        dto.setHouseholdsScanned(handler.scanned);
+        dto.setMatchCount(handler.matches.size());
+        dto.setHouseholds(handler.matches);
+        return dto;
+    }
+
+    private String canonical(EligibilityRuleDto rule) {
+        try {
+            return objectMapper.writeValueAsString(rule);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Rule cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Collects the rows of one household, then tests it when the next household
+     * starts. Columns follow {@link ExportCursorRepository#HOUSEHOLD_MEMBER_COLUMNS}.
+     */
+    private static class RuleRowHandler implements RowCallbackHandler {
+        private final Predicate<HouseholdFacts> predicate;
+        private final LocalDate today;
+        private final List<EligibleHouseholdDto> matches = new ArrayList<>();
+        private HouseholdFacts current;
+        private long scanned;
+
+        RuleRowHandler(Predicate<HouseholdFacts> predicate, LocalDate today) {
+            this.predicate = predicate;
+            this.today = today;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long householdId = rs.getLong(1);
+            if (current == null || current.id.longValue() != householdId) {
+                finish();
+                current = new HouseholdFacts();
+                current.id = householdId;
+                current.houseNumber = rs.getString(3);
+                current.landmark = rs.getString(4);
+                current.rationCardType = rs.getString(7);
+                current.visitStatus = rs.getString(8);
+            }
+            // Households without members come through the LEFT JOIN with a null member id
+            if (rs.getObject(12) == null) {
+                return;
+            }
+            MemberFacts member = new MemberFacts();
+            member.gender = rs.getString(14);
+            Date dateOfBirth = rs.getDate(15);
+            member.age = MemberFacts.ageOn(dateOfBirth != null ? dateOfBirth.toLocalDate() : null, today);
+            member.relationshipToHead = rs.getString(16);
+            member.education = rs.getString(17);
+            member.occupation = rs.getString(18);
+            member.monthlyIncome = rs.getBigDecimal(19);
+            member.disabilityFlag = rs.getObject(22, Boolean.class);
+            member.seniorCitizenFlag = rs.getObject(23, Boolean.class);
+            current.members.add(member);
+        }
+
+        void finish() {
+            if (current == null) {
+                return;
+            }
+            scanned++;
+            if (predicate.test(current)) {
+                EligibleHouseholdDto dto = new EligibleHouseholdDto();
+                dto.setHouseholdId(current.id);
+                dto.setHouseNumber(current.houseNumber);
+                dto.setLandmark(current.landmark);
+                dto.setRationCardType(current.rationCardType);
+                dto.setMemberCount(current.members.size());
+                dto.setMonthlyIncome(current.income());
+                matches.add(dto);
+            }
+            current = null;
+        }
+    }
+}
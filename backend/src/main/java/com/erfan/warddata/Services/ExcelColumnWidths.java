@@ -0,0 +1,126 @@
+package com.erfan.warddata.Services;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Estimates column widths while rows are generated, replacing
+ * {@code Sheet.autoSizeColumn}. Autosizing lays out every cell through AWT at
+ * the end of the export and needs all rows in memory; here each value is
+ * measured once with fixed glyph-width tables and only the running maximum per
+ * column is kept.
+ * <p>
+ * Widths are in pixels of the workbook default font (Calibri 11, where the
+ * digit '0' is 7px wide). Malayalam is drawn by the fallback font (Nirmala UI /
+ * Kartika), whose glyphs are measured at the same size.
+ */
+final class ExcelColumnWidths {
+
+    private static final double DIGIT_WIDTH_PX = 7.0;
+    // Excel's autofit leaves a little room on both sides of the text
+    private static final double CELL_PADDING_PX = 5.0;
+    private static final double BOLD_FACTOR = 1.07;
+    private static final int MAX_WIDTH = 255 * 256;
+
+    // Calibri 11 advance widths for printable ASCII (0x20..0x7E)
+    private static final byte[] ASCII_WIDTHS_PX = {
+            3, 3, 5, 7, 7, 10, 10, 3, 4, 4, 7, 7, 3, 4, 3, 5, // space ! " # $ % & ' ( ) * + , - . /
+            7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 3, 3, 7, 7, 7, 6, // 0-9 : ; < = > ?
+            12, 8, 8, 8, 9, 7, 6, 9, 9, 3, 4, 7, 6, 12, 9, 10, // @ A-O
+            7, 10, 8, 6, 7, 9, 8, 13, 7, 7, 7, 4, 5, 4, 7, 7, // P-Z [ \ ] ^ _
+            4, 7, 7, 6, 7, 7, 4, 6, 7, 3, 3, 6, 3, 11, 7, 7, // ` a-o
+            7, 7, 5, 5, 4, 7, 6, 10, 6, 6, 5, 4, 7, 4, 7 // p-z { | } ~
+    };
+
+    private static final int MALAYALAM_START = 0x0D00;
+    private static final int MALAYALAM_END = 0x0D7F;
+    private static final byte[] MALAYALAM_WIDTHS_PX = malayalamWidths();
+
+    private final double[] maxPixels;
+
+    ExcelColumnWidths(int columns) {
+        this.maxPixels = new double[columns];
+    }
+
+    void track(int column, String value, boolean bold) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        double px = textWidthPx(value);
+        if (bold) {
+            px *= BOLD_FACTOR;
+        }
+        if (px > maxPixels[column]) {
+            maxPixels[column] = px;
+        }
+    }
+
+    /**
+     * Applies the tracked widths once; columns that never received a value keep
+     * the sheet default.
+     */
+    void applyTo(Sheet sheet) {
+        for (int i = 0; i < maxPixels.length; i++) {
+            if (maxPixels[i] > 0) {
+                sheet.setColumnWidth(i, widthUnits(maxPixels[i]));
+            }
+        }
+    }
+
+    int columnWidth(int column) {
+        return widthUnits(maxPixels[column]);
+    }
+
+    private static int widthUnits(double px) {
+        int units = (int) Math.ceil((px + CELL_PADDING_PX) / DIGIT_WIDTH_PX * 256);
+        return Math.min(units, MAX_WIDTH);
+    }
+
+    static double textWidthPx(String value) {
+        double px = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c <= 0x7E) {
+                px += ASCII_WIDTHS_PX[c - 0x20];
+            } else if (c >= MALAYALAM_START && c <= MALAYALAM_END) {
+                px += MALAYALAM_WIDTHS_PX[c - MALAYALAM_START];
+            } else if (c == 0x200C || c == 0x200D) {
+                // ZWNJ / ZWJ only steer conjunct shaping
+            } else if (Character.isHighSurrogate(c)) {
+                px += 2 * DIGIT_WIDTH_PX;
+                i++;
+            } else if (Character.isIdeographic(c)) {
+                px += 2 * DIGIT_WIDTH_PX;
+            } else {
+                px += DIGIT_WIDTH_PX;
+            }
+        }
+        return px;
+    }
+
+    private static byte[] malayalamWidths() {
+        byte[] widths = new byte[MALAYALAM_END - MALAYALAM_START + 1];
+        // Independent vowels, consonants and chillu letters
+        java.util.Arrays.fill(widths, (byte) 10);
+        widths[0x02] = 7; // anusvara
+        widths[0x03] = 5; // visarga
+        widths[0x3E] = 6; // aa sign
+        widths[0x3F] = 4; // i sign
+        widths[0x40] = 6; // ii sign
+        widths[0x41] = 3; // u sign
+        widths[0x42] = 3; // uu sign
+        widths[0x43] = 3; // vocalic r sign
+        widths[0x44] = 3; // vocalic rr sign
+        widths[0x46] = 7; // e sign
+        widths[0x47] = 7; // ee sign
+        widths[0x48] = 11; // ai sign
+        widths[0x4A] = 13; // o sign (e + aa)
+        widths[0x4B] = 13; // oo sign
+        widths[0x4C] = 13; // au sign
+        widths[0x4D] = 2; // virama, mostly absorbed into conjuncts
+        widths[0x57] = 6; // au length mark
+        for (int d = 0x66; d <= 0x6F; d++) {
+            widths[d] = 9; // Malayalam digits
+        }
+        return widths;
+    }
+}
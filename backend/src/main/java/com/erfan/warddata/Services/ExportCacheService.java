@@ -0,0 +1,200 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.WardDataVersion;
+import com.erfan.warddata.Repos.WardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache for rendered ward exports. There is at most one file per ward and
+ * export variant; it is served only while the ward's data version still matches
+ * and is evicted least-recently-used once the cache exceeds its size cap.
+ */
+@Service
+public class ExportCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportCacheService.class);
+
+    @FunctionalInterface
+    public interface ExportRenderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    private final WardRepository wardRepository;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedExport> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ExportCacheService(WardRepository wardRepository,
+            @Value("${export.cache.dir:${java.io.tmpdir}/warddata-export-cache}") String cacheDir,
+            @Value("${export.cache.max-size-mb:1024}") long maxSizeMb) throws IOException {
+        this.wardRepository = wardRepository;
+        this.cacheDir = Files.createDirectories(Paths.get(cacheDir));
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        clearDirectory();
+    }
+
+    public WardDataVersion getWardDataVersion(Long wardId) {
+        List<Object[]> rows = wardRepository.findDataVersionInputs(wardId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Ward not found");
+        }
+        Object[] row = rows.get(0);
+        StringBuilder fingerprint = new StringBuilder();
+        for (Object value : row) {
+            fingerprint.append(value).append('|');
+        }
+        return new WardDataVersion(wardId, (String) row[0], sha256(fingerprint.toString()).substring(0, 20));
+    }
+
+    public String etag(WardDataVersion version, String variant) {
+        return "\"" + version.getWardId() + "-" + variant + "-" + version.getVersion() + "\"";
+    }
+
+    /**
+     * Writes the export for {@code version} into {@code out}, from the cache when
+     * possible. Otherwise the renderer output is sent to {@code out} and captured
+     * into the cache at the same time.
+     */
+    public void writeExport(WardDataVersion version, String variant, OutputStream out, ExportRenderer renderer)
+            throws IOException {
+        String key = version.getWardId() + "_" + variant;
+        Path cached = lookup(key, version.getVersion());
+        if (cached != null) {
+            try {
+                Files.copy(cached, out);
+                out.flush();
+                return;
+            } catch (NoSuchFileException e) {
+                // Evicted between lookup and open; render again below
+            }
+        }
+
+        Path temp = Files.createTempFile(cacheDir, key, ".part");
+        try {
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.render(new TeeOutputStream(out, fileOut));
+            }
+            store(key, version.getVersion(), temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private synchronized Path lookup(String key, String version) {
+        CachedExport entry = entries.get(key);
+        return (entry != null && entry.version.equals(version)) ? entry.file : null;
+    }
+
+    private synchronized void store(String key, String version, Path temp) throws IOException {
+        Path file = cacheDir.resolve(key + "_" + version);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        CachedExport previous = entries.put(key, new CachedExport(version, file, Files.size(file)));
+        totalBytes += Files.size(file);
+        if (previous != null) {
+            totalBytes -= previous.size;
+            if (!previous.file.equals(file)) {
+                // Readers that already opened the stale file keep their handle
+                Files.deleteIfExists(previous.file);
+            }
+        }
+
+        Iterator<Map.Entry<String, CachedExport>> lru = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && lru.hasNext()) {
+            Map.Entry<String, CachedExport> eldest = lru.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().size;
+            Files.deleteIfExists(eldest.getValue().file);
+            lru.remove();
+        }
+    }
+
+    private void clearDirectory() throws IOException {
+        // The index lives in memory, so files from a previous run are unreachable
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete stale export cache file {}", file, e);
+                }
+            });
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedExport {
+        private final String version;
+        private final Path file;
+        private final long size;
+
+        CachedExport(String version, Path file, long size) {
+            this.version = version;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import com.erfan.warddata.Repos.FamilyMemberRepository;
+import com.erfan.warddata.Repos.HouseholdRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * Feeds export renderers with households and their members. Households are read
+ * in id-ordered (keyset) chunks and the members of a whole chunk are loaded with
+ * a single {@code household_id IN (...)} query, so a ward costs two queries per
+ * chunk instead of one query per household.
+ */
+@Component
+public class ExportDataPipeline {
+
+    private final HouseholdRepository householdRepository;
+    private final FamilyMemberRepository familyMemberRepository;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public ExportDataPipeline(HouseholdRepository householdRepository,
+            FamilyMemberRepository familyMemberRepository, EntityManager entityManager,
+            @Value("${export.chunk-size:500}") int chunkSize) {
+        this.householdRepository = householdRepository;
+        this.familyMemberRepository = familyMemberRepository;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    public long countHouseholds(Long wardId) {
+        return householdRepository.countByWardId(wardId);
+    }
+
+    /**
+     * Lazily iterates the ward in chunks. Only the current chunk is referenced by
+     * the iterator, so memory use is bounded by the chunk size.
+     */
+    public Iterator<HouseholdWithMembers> householdGroups(Long wardId) {
+        return new ChunkIterator(wardId, processed -> {
+        });
+    }
+
+    /**
+     * Same as {@link #householdGroups(Long)}, reporting the number of households
+     * handed out so far after every group.
+     */
+    public Iterator<HouseholdWithMembers> householdGroups(Long wardId, LongConsumer progress) {
+        return new ChunkIterator(wardId, progress);
+    }
+
+    private List<HouseholdWithMembers> loadChunk(Long wardId, long afterId) {
+        List<Household> households = householdRepository.findByWardIdAndIdGreaterThanOrderByIdAsc(wardId, afterId,
+                PageRequest.of(0, chunkSize));
+        if (households.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, HouseholdWithMembers> groups = new HashMap<>();
+        List<HouseholdWithMembers> chunk = new ArrayList<>(households.size());
+        for (Household h : households) {
+            HouseholdWithMembers group = new HouseholdWithMembers(h, new ArrayList<>());
+            groups.put(h.getId(), group);
+            chunk.add(group);
+        }
+
+        List<FamilyMember> members = familyMemberRepository
+                .findByHouseholdIdInOrderByHouseholdIdAscIdAsc(groups.keySet());
+        for (FamilyMember m : members) {
+            groups.get(m.getHouseholdId()).getMembers().add(m);
+        }
+
+        // Exports may run inside an open persistence context (open-in-view);
+        // detach rows so finished chunks can be garbage collected
+        households.forEach(entityManager::detach);
+        members.forEach(entityManager::detach);
+        return chunk;
+    }
+
+    private class ChunkIterator implements Iterator<HouseholdWithMembers> {
+        private final Long wardId;
+        private final LongConsumer progress;
+        private Iterator<HouseholdWithMembers> current = Collections.emptyIterator();
+        private long lastId = 0;
+        private long handedOut = 0;
+        private boolean exhausted = false;
+
+        ChunkIterator(Long wardId, LongConsumer progress) {
+            this.wardId = wardId;
+            this.progress = progress;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !exhausted) {
+                List<HouseholdWithMembers> chunk = loadChunk(wardId, lastId);
+                if (chunk.size() < chunkSize) {
+                    exhausted = true;
+                }
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getHousehold().getId();
+                }
+                current = chunk.iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public HouseholdWithMembers next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HouseholdWithMembers group = current.next();
+            progress.accept(++handedOut);
+            return group;
+        }
+    }
+}
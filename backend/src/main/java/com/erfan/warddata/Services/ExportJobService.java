@@ -0,0 +1,223 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.ExportJobDto;
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Enums.ExportJobStatus;
+import com.erfan.warddata.Models.Ward;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs ward exports in the background. Results are spooled to a local directory
+ * and kept until they expire; job state itself lives in memory, so jobs do not
+ * survive a restart.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private final ExportService exportService;
+    private final ExportDataPipeline exportDataPipeline;
+    private final WardService wardService;
+
+    private final Path spoolDir;
+    private final int perUserLimit;
+    private final Duration resultTtl;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(ExportService exportService, ExportDataPipeline exportDataPipeline,
+            WardService wardService,
+            @Value("${export.jobs.spool-dir:${java.io.tmpdir}/warddata-exports}") String spoolDir,
+            @Value("${export.jobs.max-concurrent:4}") int maxConcurrent,
+            @Value("${export.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${export.jobs.max-per-user:2}") int perUserLimit,
+            @Value("${export.jobs.result-ttl-minutes:60}") long resultTtlMinutes) throws IOException {
+        this.exportService = exportService;
+        this.exportDataPipeline = exportDataPipeline;
+        this.wardService = wardService;
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+        clearSpoolDirectory();
+        this.perUserLimit = perUserLimit;
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "export-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public synchronized ExportJobDto submit(Long userId, Long wardId, ExportFormat format) {
+        long active = jobs.values().stream()
+                .filter(j -> j.userId.equals(userId) && !j.isFinished())
+                .count();
+        if (active >= perUserLimit) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "You already have " + active + " exports running");
+        }
+
+        Ward ward = wardService.getWardById(wardId);
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), userId, wardId, format,
+                format.fileName(ward.getName()));
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Export queue is full, try again later");
+        }
+        return job.toDto();
+    }
+
+    public ExportJobDto getJob(Long userId, Long wardId, String jobId) {
+        return findJob(userId, wardId, jobId).toDto();
+    }
+
+    /**
+     * Returns the spooled result of a finished job.
+     */
+    public Path getResult(Long userId, Long wardId, String jobId) {
+        ExportJob job = findJob(userId, wardId, jobId);
+        if (job.status != ExportJobStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export is " + job.status);
+        }
+        return job.file;
+    }
+
+    private ExportJob findJob(Long userId, Long wardId, String jobId) {
+        ExportJob job = jobs.get(jobId);
+        // Other users' jobs are reported as missing rather than forbidden
+        if (job == null || !job.wardId.equals(wardId) || !job.userId.equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Export job not found");
+        }
+        return job;
+    }
+
+    private void run(ExportJob job) {
+        job.status = ExportJobStatus.RUNNING;
+        Path file = spoolDir.resolve(job.id + "." + job.format.getExtension());
+        try {
+            job.totalHouseholds = exportDataPipeline.countHouseholds(job.wardId);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                exportService.exportWardData(job.wardId, job.format, out, processed -> job.processed = processed);
+            }
+            job.file = file;
+            job.completedAt = Instant.now();
+            job.status = ExportJobStatus.COMPLETED;
+        } catch (Exception e) {
+            log.error("Export job {} for ward {} failed", job.id, job.wardId, e);
+            deleteQuietly(file);
+            job.error = e.getMessage();
+            job.completedAt = Instant.now();
+            job.status = ExportJobStatus.FAILED;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval-ms:60000}")
+    public void expireOldResults() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.completedAt.isBefore(cutoff)) {
+                deleteQuietly(job.file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void clearSpoolDirectory() throws IOException {
+        // Jobs live in memory, so files left by a previous run can never be fetched or expired
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null)
+            return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private class ExportJob {
+        private final String id;
+        private final Long userId;
+        private final Long wardId;
+        private final ExportFormat format;
+        private final String fileName;
+        private final Instant createdAt = Instant.now();
+
+        private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        private volatile long processed;
+        private volatile long totalHouseholds;
+        private volatile Path file;
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        ExportJob(String id, Long userId, Long wardId, ExportFormat format, String fileName) {
+            this.id = id;
+            this.userId = userId;
+            this.wardId = wardId;
+            this.format = format;
+            this.fileName = fileName;
+        }
+
+        boolean isFinished() {
+            return status == ExportJobStatus.COMPLETED || status == ExportJobStatus.FAILED;
+        }
+
+        ExportJobDto toDto() {
+            ExportJobDto dto = new ExportJobDto();
+            dto.setJobId(id);
+            dto.setWardId(wardId);
+            dto.setFormat(format);
+            dto.setFileName(fileName);
+            dto.setStatus(status);
+            dto.setProcessedHouseholds(processed);
+            dto.setTotalHouseholds(totalHouseholds);
+            dto.setCreatedAt(createdAt);
+            dto.setCompletedAt(completedAt);
+            if (completedAt != null) {
+                dto.setExpiresAt(completedAt.plus(resultTtl));
+            }
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
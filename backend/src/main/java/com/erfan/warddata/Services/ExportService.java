@@ -1,9 +1,10 @@
 package com.erfan.warddata.Services;
 
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Enums.ExportFormat;
 import com.erfan.warddata.Models.FamilyMember;
 import com.erfan.warddata.Models.Household;
-import com.erfan.warddata.Repos.FamilyMemberRepository;
-import com.erfan.warddata.Repos.HouseholdRepository;
+import com.erfan.warddata.Repos.ExportCursorRepository;
 import com.erfan.warddata.Repos.WardRepository;
 import com.erfan.warddata.Models.Ward;
 import com.lowagie.text.Document;
@@ -12,34 +13,162 @@ import com.lowagie.text.FontFactory;
 import com.lowagie.text.Paragraph;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class ExportService {
 
-    private final HouseholdRepository householdRepository;
-    private final FamilyMemberRepository familyMemberRepository;
+    // Rows kept in heap by the streaming workbook; older rows are flushed to a temp file
+    private static final int EXCEL_ROW_WINDOW = 100;
+
+    // Member rows laid out per slice of an incomplete PDF table
+    private static final int PDF_TABLE_SLICE_ROWS = 50;
+
+    // PDF fonts and header cells are immutable once built and shared by every export
+    private static final Font PDF_FONT_TITLE = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private static final Font PDF_FONT_SECTION = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
+    private static final Font PDF_FONT_LABEL = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    private static final Font PDF_FONT_NORMAL = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    private static final java.awt.Color PDF_HOUSEHOLD_BACKGROUND = new java.awt.Color(230, 230, 230);
+    private static final float[] PDF_MEMBER_COLUMN_WIDTHS = { 2.5f, 1f, 1.5f, 1.5f, 2f, 2f, 2f, 2f, 1.5f };
+    private static final List<com.lowagie.text.pdf.PdfPCell> PDF_MEMBER_HEADERS = pdfMemberHeaders();
+
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader(ExportCursorRepository.HOUSEHOLD_MEMBER_COLUMNS.toArray(new String[0]))
+            .build();
+
+    private final ExportDataPipeline exportDataPipeline;
+    private final ExportCursorRepository exportCursorRepository;
     private final WardRepository wardRepository;
 
-    public ExportService(HouseholdRepository householdRepository, FamilyMemberRepository familyMemberRepository,
+    public ExportService(ExportDataPipeline exportDataPipeline, ExportCursorRepository exportCursorRepository,
             WardRepository wardRepository) {
-        this.householdRepository = householdRepository;
-        this.familyMemberRepository = familyMemberRepository;
+        this.exportDataPipeline = exportDataPipeline;
+        this.exportCursorRepository = exportCursorRepository;
         this.wardRepository = wardRepository;
     }
 
-    public byte[] exportWardDataToExcel(Long wardId) {
-        List<Household> households = householdRepository.findAllByWardId(wardId);
+    private String wardDisplayName(Long wardId) {
         Ward ward = wardRepository.findById(wardId).orElse(null);
-        String wardDisplay = (ward != null) ? ward.getName() : "ID " + wardId;
+        return (ward != null) ? ward.getName() : "ID " + wardId;
+    }
+
+    /**
+     * Renders the ward in the given format into {@code out}, reporting the number
+     * of households written so far to {@code progress}.
+     */
+    public void exportWardData(Long wardId, ExportFormat format, OutputStream out, LongConsumer progress) {
+        switch (format) {
+            case EXCEL:
+                renderExcel(wardDisplayName(wardId), exportDataPipeline.householdGroups(wardId, progress), out);
+                break;
+            case PDF:
+                renderPdf(wardDisplayName(wardId), exportDataPipeline.householdGroups(wardId, progress), out);
+                break;
+            case CSV:
+                writeCsv(wardId, out, false, progress);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported export format " + format);
+        }
+    }
+
+    /**
+     * Streams a flat CSV with one row per family member and the household columns
+     * repeated on every row. Rows come straight off a JDBC cursor without entity
+     * hydration or any styling, optionally gzip-compressed on the fly.
+     */
+    public void exportWardDataToCsv(Long wardId, OutputStream out, boolean gzip) {
+        writeCsv(wardId, out, gzip, processed -> {
+        });
+    }
+
+    private void writeCsv(Long wardId, OutputStream out, boolean gzip, LongConsumer progress) {
+        try {
+            GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, CSV_BUFFER_SIZE) : null;
+            BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            // Not closed: the caller owns the underlying stream
+            CSVPrinter printer = new CSVPrinter(writer, CSV_FORMAT);
+            exportCursorRepository.streamWardHouseholdMembers(wardId, new CsvRowHandler(printer, progress));
+            printer.flush();
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            out.flush();
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to export CSV", e);
+        }
+    }
+
+    private static class CsvRowHandler implements RowCallbackHandler {
+        private static final int COLUMNS = ExportCursorRepository.HOUSEHOLD_MEMBER_COLUMNS.size();
+
+        private final CSVPrinter printer;
+        private final LongConsumer progress;
+        private long lastHouseholdId = -1;
+        private long households = 0;
+
+        CsvRowHandler(CSVPrinter printer, LongConsumer progress) {
+            this.printer = printer;
+            this.progress = progress;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long householdId = rs.getLong(1);
+            if (householdId != lastHouseholdId) {
+                lastHouseholdId = householdId;
+                progress.accept(++households);
+            }
+            try {
+                for (int i = 1; i <= COLUMNS; i++) {
+                    printer.print(rs.getObject(i));
+                }
+                printer.println();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Streams the ward workbook into {@code out}. Only a window of
+     * {@value #EXCEL_ROW_WINDOW} rows is held in memory at a time and column
+     * widths are estimated on the fly, so heap use does not grow with the size of
+     * the ward.
+     */
+    public void exportWardDataToExcel(Long wardId, OutputStream out) {
+        renderExcel(wardDisplayName(wardId), exportDataPipeline.householdGroups(wardId), out);
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Ward " + wardDisplay);
+    public void renderExcel(String wardDisplay, Iterator<HouseholdWithMembers> groups, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Ward " + wardDisplay);
+            // Merged rows are left out, as autoSizeColumn does by default
+            ExcelColumnWidths widths = new ExcelColumnWidths(9);
 
             // Styles
             CellStyle houseHeaderStyle = workbook.createCellStyle();
@@ -64,7 +193,10 @@ public class ExportService {
 
             int rowIdx = 0;
 
-            for (Household h : households) {
+            while (groups.hasNext()) {
+                HouseholdWithMembers group = groups.next();
+                Household h = group.getHousehold();
+
                 // 1. Household Header
                 Row hRow = sheet.createRow(rowIdx++);
                 Cell hCell = hRow.createCell(0);
@@ -72,16 +204,19 @@ public class ExportService {
                         + (h.getRationCardNumber() != null ? h.getRationCardNumber() : "-") + " ("
                         + h.getRationCardType() + ")");
                 hCell.setCellStyle(houseHeaderStyle);
-                sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(rowIdx - 1, rowIdx - 1, 0, 8));
+                // Each merge covers one freshly created row, so none can overlap; the checked
+                // addMergedRegion compares against every earlier merge and is quadratic per sheet
+                sheet.addMergedRegionUnsafe(
+                        new org.apache.poi.ss.util.CellRangeAddress(rowIdx - 1, rowIdx - 1, 0, 8));
 
                 // 2. Household Details Row
                 Row detailRow = sheet.createRow(rowIdx++);
-                detailRow.createCell(0).setCellValue("Address:");
-                detailRow.createCell(1).setCellValue(h.getFullAddress());
-                detailRow.createCell(4).setCellValue("Landmark:");
-                detailRow.createCell(5).setCellValue(h.getLandmark() != null ? h.getLandmark() : "-");
-                detailRow.createCell(7).setCellValue("Status:");
-                detailRow.createCell(8).setCellValue(h.getVisitStatus().name());
+                setCell(detailRow, 0, "Address:", widths);
+                setCell(detailRow, 1, h.getFullAddress(), widths);
+                setCell(detailRow, 4, "Landmark:", widths);
+                setCell(detailRow, 5, h.getLandmark() != null ? h.getLandmark() : "-", widths);
+                setCell(detailRow, 7, "Status:", widths);
+                setCell(detailRow, 8, h.getVisitStatus().name(), widths);
 
                 // 3. Member Table Header
                 Row mHeaderRow = sheet.createRow(rowIdx++);
@@ -91,50 +226,57 @@ public class ExportService {
                     Cell cell = mHeaderRow.createCell(i);
                     cell.setCellValue(columns[i]);
                     cell.setCellStyle(memberHeaderStyle);
+                    widths.track(i, columns[i], true);
                 }
 
                 // 4. Member Data
-                List<FamilyMember> members = familyMemberRepository.findByHouseholdId(h.getId());
+                List<FamilyMember> members = group.getMembers();
                 if (members.isEmpty()) {
                     Row emptyRow = sheet.createRow(rowIdx++);
                     emptyRow.createCell(0).setCellValue("No members recorded");
-                    sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(rowIdx - 1, rowIdx - 1, 0, 8));
+                    sheet.addMergedRegionUnsafe(
+                            new org.apache.poi.ss.util.CellRangeAddress(rowIdx - 1, rowIdx - 1, 0, 8));
                 } else {
                     for (FamilyMember m : members) {
                         Row row = sheet.createRow(rowIdx++);
-                        row.createCell(0).setCellValue(m.getFullName());
-                        row.createCell(1).setCellValue(m.getRelationshipToHead());
-                        row.createCell(2).setCellValue(m.getGender() != null ? m.getGender().name() : "");
-                        row.createCell(3).setCellValue(m.getDateOfBirth() != null ? m.getDateOfBirth().toString() : "");
-                        row.createCell(4).setCellValue(m.getEducation());
-                        row.createCell(5).setCellValue(m.getOccupation());
-                        row.createCell(6).setCellValue(m.getMobileNumber());
-                        row.createCell(7).setCellValue(m.getAadhaarNumber());
+                        setCell(row, 0, m.getFullName(), widths);
+                        setCell(row, 1, m.getRelationshipToHead(), widths);
+                        setCell(row, 2, m.getGender() != null ? m.getGender().name() : "", widths);
+                        setCell(row, 3, m.getDateOfBirth() != null ? m.getDateOfBirth().toString() : "", widths);
+                        setCell(row, 4, m.getEducation(), widths);
+                        setCell(row, 5, m.getOccupation(), widths);
+                        setCell(row, 6, m.getMobileNumber(), widths);
+                        setCell(row, 7, m.getAadhaarNumber(), widths);
 
                         String flags = "";
                         if (Boolean.TRUE.equals(m.getDisabilityFlag()))
                             flags += "PwD ";
                         if (Boolean.TRUE.equals(m.getSeniorCitizenFlag()))
                             flags += "Sr.";
-                        row.createCell(8).setCellValue(flags.trim());
+                        setCell(row, 8, flags.trim(), widths);
                     }
                 }
 
                 rowIdx++; // Spacer row
             }
 
-            // Post-processing: Auto-size
-            for (int i = 0; i <= 8; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            // Widths were measured while rows were generated
+            widths.applyTo(sheet);
 
             workbook.write(out);
-            return out.toByteArray();
+            out.flush();
         } catch (Exception e) {
             throw new RuntimeException("Failed to export Excel", e);
+        } finally {
+            workbook.dispose();
         }
     }
 
+    private static void setCell(Row row, int column, String value, ExcelColumnWidths widths) {
+        row.createCell(column).setCellValue(value);
+        widths.track(column, value, false);
+    }
+
     private void fillHouseholdData(Row row, Household h) {
         row.createCell(0).setCellValue(h.getId());
         row.createCell(1).setCellValue(h.getWardId());
@@ -150,33 +292,33 @@ public class ExportService {
         row.createCell(11).setCellValue(h.getUpdatedAt() != null ? h.getUpdatedAt().toString() : "");
     }
 
-    public byte[] exportWardDataToPdf(Long wardId) {
-        List<Household> households = householdRepository.findAllByWardId(wardId);
-        Ward ward = wardRepository.findById(wardId).orElse(null);
-        String wardDisplay = (ward != null) ? ward.getName() : "ID " + wardId;
+    /**
+     * Streams the ward report into {@code out}. Finished pages are flushed as soon
+     * as the writer moves past them and member tables are added in slices, so only
+     * the rows of the page being laid out are held in memory.
+     */
+    public void exportWardDataToPdf(Long wardId, OutputStream out) {
+        renderPdf(wardDisplayName(wardId), exportDataPipeline.householdGroups(wardId), out);
+    }
 
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(com.lowagie.text.PageSize.A4.rotate()); // Landscape
-            PdfWriter.getInstance(document, out);
+    public void renderPdf(String wardDisplay, Iterator<HouseholdWithMembers> groups, OutputStream out) {
+        Document document = new Document(com.lowagie.text.PageSize.A4.rotate()); // Landscape
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            // The caller owns the stream (servlet response, spool file, zip entry)
+            writer.setCloseStream(false);
             document.open();
 
-            Font fontTitle = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-            fontTitle.setSize(18);
-            Paragraph title = new Paragraph("Ward Data Report - Ward " + wardDisplay, fontTitle);
+            Paragraph title = new Paragraph("Ward Data Report - Ward " + wardDisplay, PDF_FONT_TITLE);
             title.setAlignment(Paragraph.ALIGN_CENTER);
             title.setSpacingAfter(20);
             document.add(title);
 
-            Font fontSection = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-            fontSection.setSize(11);
-
-            Font fontLabel = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-            fontLabel.setSize(9);
+            int flushedPage = writer.getPageNumber();
+            while (groups.hasNext()) {
+                HouseholdWithMembers group = groups.next();
+                Household h = group.getHousehold();
 
-            Font fontNormal = FontFactory.getFont(FontFactory.HELVETICA);
-            fontNormal.setSize(9);
-
-            for (Household h : households) {
                 // Household Header Section
                 PdfPTable hTable = new PdfPTable(2); // Grid layout for household info
                 hTable.setWidthPercentage(100);
@@ -185,7 +327,7 @@ public class ExportService {
 
                 com.lowagie.text.pdf.PdfPCell hCell = new com.lowagie.text.pdf.PdfPCell();
                 hCell.setColspan(2);
-                hCell.setBackgroundColor(new java.awt.Color(230, 230, 230));
+                hCell.setBackgroundColor(PDF_HOUSEHOLD_BACKGROUND);
                 hCell.setPadding(6);
 
                 // Content construction
@@ -200,75 +342,89 @@ public class ExportService {
                 if (h.getVisitedAt() != null)
                     sb.append(" (").append(h.getVisitedAt().toString().split(" ")[0]).append(")");
 
-                hCell.addElement(new Paragraph(sb.toString(), fontSection));
+                hCell.addElement(new Paragraph(sb.toString(), PDF_FONT_SECTION));
                 hCell.setBorder(com.lowagie.text.Rectangle.BOX);
                 hTable.addCell(hCell);
 
                 document.add(hTable);
 
-                List<FamilyMember> members = familyMemberRepository.findByHouseholdId(h.getId());
+                List<FamilyMember> members = group.getMembers();
                 if (!members.isEmpty()) {
                     PdfPTable table = new PdfPTable(9);
                     table.setWidthPercentage(100);
                     table.setSpacingBefore(0);
                     table.setSpacingAfter(10);
-                    table.setWidths(new float[] { 2.5f, 1f, 1.5f, 1.5f, 2f, 2f, 2f, 2f, 1.5f });
-
-                    addPdfHeader(table, "Name", fontLabel);
-                    addPdfHeader(table, "Gender", fontLabel);
-                    addPdfHeader(table, "DOB", fontLabel);
-                    addPdfHeader(table, "Relation", fontLabel);
-                    addPdfHeader(table, "Education", fontLabel);
-                    addPdfHeader(table, "Job", fontLabel);
-                    addPdfHeader(table, "Mobile", fontLabel);
-                    addPdfHeader(table, "Aadhaar", fontLabel);
-                    addPdfHeader(table, "Flags", fontLabel);
+                    table.setWidths(PDF_MEMBER_COLUMN_WIDTHS);
+                    table.setHeaderRows(1);
+                    // Incomplete tables are laid out and released in slices by document.add
+                    table.setComplete(false);
+
+                    for (com.lowagie.text.pdf.PdfPCell header : PDF_MEMBER_HEADERS) {
+                        table.addCell(header);
+                    }
 
+                    int rows = 0;
                     for (FamilyMember m : members) {
-                        table.addCell(new com.lowagie.text.Phrase(m.getFullName(), fontNormal));
+                        table.addCell(new com.lowagie.text.Phrase(m.getFullName(), PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(
-                                m.getGender() != null ? m.getGender().name().substring(0, 1) : "", fontNormal));
+                                m.getGender() != null ? m.getGender().name().substring(0, 1) : "", PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(
-                                m.getDateOfBirth() != null ? m.getDateOfBirth().toString() : "", fontNormal));
+                                m.getDateOfBirth() != null ? m.getDateOfBirth().toString() : "", PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(
-                                m.getRelationshipToHead() != null ? m.getRelationshipToHead() : "", fontNormal));
+                                m.getRelationshipToHead() != null ? m.getRelationshipToHead() : "", PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(m.getEducation() != null ? m.getEducation() : "",
-                                fontNormal));
+                                PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(m.getOccupation() != null ? m.getOccupation() : "",
-                                fontNormal));
+                                PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(
-                                m.getMobileNumber() != null ? m.getMobileNumber() : "", fontNormal));
+                                m.getMobileNumber() != null ? m.getMobileNumber() : "", PDF_FONT_NORMAL));
                         table.addCell(new com.lowagie.text.Phrase(
-                                m.getAadhaarNumber() != null ? m.getAadhaarNumber() : "", fontNormal));
+                                m.getAadhaarNumber() != null ? m.getAadhaarNumber() : "", PDF_FONT_NORMAL));
 
                         String flags = "";
                         if (Boolean.TRUE.equals(m.getDisabilityFlag()))
                             flags += "PwD ";
                         if (Boolean.TRUE.equals(m.getSeniorCitizenFlag()))
                             flags += "Sr.";
-                        table.addCell(new com.lowagie.text.Phrase(flags.trim(), fontNormal));
+                        table.addCell(new com.lowagie.text.Phrase(flags.trim(), PDF_FONT_NORMAL));
+
+                        if (++rows % PDF_TABLE_SLICE_ROWS == 0) {
+                            document.add(table);
+                        }
                     }
+                    table.setComplete(true);
                     document.add(table);
                 } else {
-                    Paragraph p = new Paragraph("No members recorded", fontNormal);
+                    Paragraph p = new Paragraph("No members recorded", PDF_FONT_NORMAL);
                     p.setIndentationLeft(10);
                     p.setSpacingAfter(10);
                     document.add(p);
                 }
+
+                // Push completed pages to the client instead of letting them pile up in buffers
+                if (writer.getPageNumber() != flushedPage) {
+                    writer.flush();
+                    flushedPage = writer.getPageNumber();
+                }
             }
 
             document.close();
-            return out.toByteArray();
+            out.flush();
         } catch (Exception e) {
             throw new RuntimeException("Failed to export PDF", e);
         }
     }
 
-    private void addPdfHeader(PdfPTable table, String headerTitle, Font font) {
-        com.lowagie.text.pdf.PdfPCell header = new com.lowagie.text.pdf.PdfPCell();
-        header.setBackgroundColor(java.awt.Color.LIGHT_GRAY);
-        header.setPadding(5);
-        header.setPhrase(new com.lowagie.text.Phrase(headerTitle, font));
-        table.addCell(header);
+    private static List<com.lowagie.text.pdf.PdfPCell> pdfMemberHeaders() {
+        String[] titles = { "Name", "Gender", "DOB", "Relation", "Education", "Job", "Mobile", "Aadhaar", "Flags" };
+        List<com.lowagie.text.pdf.PdfPCell> headers = new java.util.ArrayList<>(titles.length);
+        for (String headerTitle : titles) {
+            com.lowagie.text.pdf.PdfPCell header = new com.lowagie.text.pdf.PdfPCell();
+            header.setBackgroundColor(java.awt.Color.LIGHT_GRAY);
+            header.setPadding(5);
+            header.setPhrase(new com.lowagie.text.Phrase(headerTitle, PDF_FONT_LABEL));
+            headers.add(header);
+        }
+        return List.copyOf(headers);
     }
 }
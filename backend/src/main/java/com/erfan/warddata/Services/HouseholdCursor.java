@@ -0,0 +1,51 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Enums.HouseholdOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last household of a page, handed to clients as an opaque
+ * URL-safe token. It carries the ward and order it was issued for, so it cannot
+ * be replayed against another listing.
+ */
+final class HouseholdCursor {
+
+    private static final String VERSION = "1";
+
+    final Long wardId;
+    final HouseholdOrder order;
+    final long lastId;
+    // Only for HOUSE_NUMBER; null when the last household had none
+    final String lastHouseNumber;
+
+    HouseholdCursor(Long wardId, HouseholdOrder order, long lastId, String lastHouseNumber) {
+        this.wardId = wardId;
+        this.order = order;
+        this.lastId = lastId;
+        this.lastHouseNumber = lastHouseNumber;
+    }
+
+    String encode() {
+        // The house number goes last and may itself contain ':'
+        String raw = VERSION + ":" + wardId + ":" + order.name() + ":" + lastId + ":"
+                + (lastHouseNumber != null ? "=" + lastHouseNumber : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HouseholdCursor decode(String token, Long wardId, HouseholdOrder order) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 5);
+            if (parts.length == 5 && parts[0].equals(VERSION) && Long.parseLong(parts[1]) == wardId
+                    && parts[2].equals(order.name())) {
+                String houseNumber = parts[4].startsWith("=") ? parts[4].substring(1) : null;
+                return new HouseholdCursor(wardId, order, Long.parseLong(parts[3]), houseNumber);
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64 or not a number; reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor for this listing");
+    }
+}
@@ -0,0 +1,164 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Repos.ExportCursorRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk dump of households with their members as newline-delimited JSON, one
+ * household per line. Rows come off the JDBC cursor and are written with the
+ * Jackson streaming generator, so no entities are hydrated and heap use stays
+ * flat however many wards are dumped.
+ */
+@Service
+public class HouseholdDumpService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Field names match the JSON of the Household and FamilyMember entities
+    private static final SerializableString[] HOUSEHOLD_FIELDS = fieldNames(
+            ExportCursorRepository.DUMP_HOUSEHOLD_COLUMNS);
+    private static final SerializableString[] MEMBER_FIELDS = fieldNames(ExportCursorRepository.DUMP_MEMBER_COLUMNS);
+    private static final SerializableString MEMBERS_FIELD = new SerializedString("members");
+
+    private final ExportCursorRepository exportCursorRepository;
+    private final ObjectMapper objectMapper;
+
+    public HouseholdDumpService(ExportCursorRepository exportCursorRepository, ObjectMapper objectMapper) {
+        this.exportCursorRepository = exportCursorRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every household of {@code wardIds} (all wards when empty) into
+     * {@code out}, optionally gzip-compressed on the fly.
+     */
+    public void writeNdjson(List<Long> wardIds, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(gzipOut != null ? gzipOut : out, JsonEncoding.UTF8);
+        // The caller owns the underlying stream; lines are separated explicitly
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try {
+            NdjsonRowHandler handler = new NdjsonRowHandler(generator);
+            exportCursorRepository.streamHouseholdDump(wardIds, handler);
+            handler.finish();
+            generator.close();
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class NdjsonRowHandler implements RowCallbackHandler {
+        private static final int MEMBER_OFFSET = HOUSEHOLD_FIELDS.length;
+
+        private final JsonGenerator generator;
+        private long currentHouseholdId = -1;
+
+        NdjsonRowHandler(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long householdId = rs.getLong(1);
+                if (householdId != currentHouseholdId) {
+                    finish();
+                    currentHouseholdId = householdId;
+                    generator.writeStartObject();
+                    for (int i = 0; i < HOUSEHOLD_FIELDS.length; i++) {
+                        generator.writeFieldName(HOUSEHOLD_FIELDS[i]);
+                        writeValue(rs.getObject(i + 1));
+                    }
+                    generator.writeFieldName(MEMBERS_FIELD);
+                    generator.writeStartArray();
+                }
+                // Households without members come through the LEFT JOIN with a null member id
+                if (rs.getObject(MEMBER_OFFSET + 1) == null) {
+                    return;
+                }
+                generator.writeStartObject();
+                for (int i = 0; i < MEMBER_FIELDS.length; i++) {
+                    generator.writeFieldName(MEMBER_FIELDS[i]);
+                    writeValue(rs.getObject(MEMBER_OFFSET + i + 1));
+                }
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            if (currentHouseholdId == -1) {
+                return;
+            }
+            try {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof String) {
+                generator.writeString((String) value);
+            } else if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof Number) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof Timestamp) {
+                generator.writeString(((Timestamp) value).toLocalDateTime().toString());
+            } else if (value instanceof java.sql.Date) {
+                generator.writeString(((java.sql.Date) value).toLocalDate().toString());
+            } else {
+                // LocalDateTime / LocalDate from Connector/J already print as ISO-8601
+                generator.writeString(value.toString());
+            }
+        }
+    }
+
+    private static SerializableString[] fieldNames(List<String> columns) {
+        SerializableString[] names = new SerializableString[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder camel = new StringBuilder();
+            boolean upper = false;
+            for (char c : columns.get(i).toCharArray()) {
+                if (c == '_') {
+                    upper = true;
+                } else {
+                    camel.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            names[i] = new SerializedString(camel.toString());
+        }
+        return names;
+    }
+}
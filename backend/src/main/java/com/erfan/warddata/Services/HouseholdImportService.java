@@ -0,0 +1,352 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Enums.VisitStatus;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import com.erfan.warddata.Repos.HouseholdRepository;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Imports households and members from a spreadsheet into one ward. The layout
+ * is the flat CSV export ({@link com.erfan.warddata.Repos.ExportCursorRepository#HOUSEHOLD_MEMBER_COLUMNS}):
+ * one row per member, with the household columns repeated, and consecutive
+ * rows of the same {@code household_id} (or {@code house_number} when there is
+ * no id column) forming one household. A row without member columns is a
+ * household without members.
+ * <p>
+ * The file is read as a stream and households are written in chunks, each in
+ * its own transaction. A household is imported whole or not at all: if any of
+ * its rows is invalid, or its house number is already taken in the ward, its
+ * rows are listed in the error report and nothing of it is written.
+ */
+@Service
+public class HouseholdImportService {
+
+    private static final CSVFormat ERROR_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("row", "house_number", "error")
+            .build();
+
+    private static final Set<String> MEMBER_COLUMNS = Set.of("full_name", "gender", "date_of_birth",
+            "relationship_to_head", "education", "occupation", "monthly_income", "aadhaar_number", "mobile_number",
+            "disability_flag", "senior_citizen_flag");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"), DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+
+    private final HouseholdService householdService;
+    private final HouseholdRepository householdRepository;
+    private final int chunkSize;
+
+    public HouseholdImportService(HouseholdService householdService, HouseholdRepository householdRepository,
+            @Value("${import.chunk-size:200}") int chunkSize) {
+        this.householdService = householdService;
+        this.householdRepository = householdRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Counters of a running import; written by the import thread only.
+     */
+    public static class Progress {
+        volatile long rowsRead;
+        volatile long householdsImported;
+        volatile long membersImported;
+        volatile long householdsRejected;
+        volatile long rowsRejected;
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getHouseholdsImported() {
+            return householdsImported;
+        }
+
+        public long getMembersImported() {
+            return membersImported;
+        }
+
+        public long getHouseholdsRejected() {
+            return householdsRejected;
+        }
+
+        public long getRowsRejected() {
+            return rowsRejected;
+        }
+    }
+
+    public static boolean isSupported(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".xlsx");
+    }
+
+    /**
+     * Imports {@code file} (.csv or .xlsx) into the ward and writes the
+     * rejected rows to {@code errorReport} as CSV.
+     */
+    public void importFile(Long agentId, Long wardId, Path file, Path errorReport, Progress progress)
+            throws IOException {
+        if (!isSupported(file.getFileName().toString())) {
+            throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8);
+                CSVPrinter errors = new CSVPrinter(writer, ERROR_FORMAT)) {
+            ImportRun run = new ImportRun(agentId, wardId, errors, progress);
+            try {
+                if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                    ImportRowReader.readCsv(file, run::row);
+                } else {
+                    ImportRowReader.readXlsx(file, run::row);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            run.finish();
+        }
+    }
+
+    private class ImportRun {
+        private final Long agentId;
+        private final Long wardId;
+        private final CSVPrinter errors;
+        private final Progress progress;
+        private final Set<String> houseNumbers;
+        private List<HouseholdWithMembers> chunk = new ArrayList<>();
+        private PendingHousehold pending;
+
+        ImportRun(Long agentId, Long wardId, CSVPrinter errors, Progress progress) {
+            this.agentId = agentId;
+            this.wardId = wardId;
+            this.errors = errors;
+            this.progress = progress;
+            this.houseNumbers = new HashSet<>(householdRepository.findHouseNumbersByWardId(wardId));
+        }
+
+        void row(long rowNumber, Map<String, String> values) {
+            progress.rowsRead++;
+            String key = values.containsKey("household_id") ? values.get("household_id") : values.get("house_number");
+            if (pending == null || key == null || !key.equals(pending.key)) {
+                finishHousehold();
+                pending = new PendingHousehold(key, rowNumber, values);
+            }
+            pending.rows++;
+            if (MEMBER_COLUMNS.stream().anyMatch(values::containsKey)) {
+                pending.addMember(rowNumber, values);
+            }
+        }
+
+        void finish() {
+            finishHousehold();
+            flush();
+        }
+
+        private void finishHousehold() {
+            if (pending == null) {
+                return;
+            }
+            String houseNumber = pending.entry.getHousehold().getHouseNumber();
+            if (houseNumber != null && houseNumbers.contains(houseNumber)) {
+                pending.errors.add(new String[] { String.valueOf(pending.firstRow),
+                        "house_number: " + houseNumber + " already exists in this ward" });
+            }
+            if (pending.errors.isEmpty()) {
+                houseNumbers.add(houseNumber);
+                chunk.add(pending.entry);
+                if (chunk.size() >= chunkSize) {
+                    flush();
+                }
+            } else {
+                try {
+                    for (String[] error : pending.errors) {
+                        errors.printRecord(error[0], houseNumber, error[1]);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress.householdsRejected++;
+                progress.rowsRejected += pending.rows;
+            }
+            pending = null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            int members = householdService.importHouseholds(agentId, wardId, chunk);
+            progress.householdsImported += chunk.size();
+            progress.membersImported += members;
+            // A new list: the written one still holds the saved entities
+            chunk = new ArrayList<>();
+        }
+    }
+
+    /**
+     * One household being collected from consecutive rows. Household columns
+     * are taken from its first row.
+     */
+    private static class PendingHousehold {
+        private final String key;
+        private final long firstRow;
+        private final HouseholdWithMembers entry = new HouseholdWithMembers();
+        private final List<String[]> errors = new ArrayList<>();
+        private long rows;
+
+        PendingHousehold(String key, long rowNumber, Map<String, String> values) {
+            this.key = key;
+            this.firstRow = rowNumber;
+            Household household = new Household();
+            household.setHouseNumber(values.get("house_number"));
+            if (household.getHouseNumber() == null) {
+                errors.add(new String[] { String.valueOf(rowNumber), "house_number: is required" });
+            }
+            household.setLandmark(values.get("landmark"));
+            household.setFullAddress(values.get("full_address"));
+            household.setRationCardNumber(values.get("ration_card_number"));
+            household.setRationCardType(parse(rowNumber, values, "ration_card_type",
+                    v -> enumValue(RationCardType.class, v)));
+            VisitStatus visitStatus = parse(rowNumber, values, "visit_status", v -> enumValue(VisitStatus.class, v));
+            household.setVisitStatus(visitStatus != null ? visitStatus : VisitStatus.NOT_VISITED);
+            household.setVisitedAt(parse(rowNumber, values, "visited_at", HouseholdImportService::timestamp));
+            household.setLatitude(parse(rowNumber, values, "latitude", v -> coordinate(v, 90)));
+            household.setLongitude(parse(rowNumber, values, "longitude", v -> coordinate(v, 180)));
+            entry.setHousehold(household);
+        }
+
+        void addMember(long rowNumber, Map<String, String> values) {
+            FamilyMember member = new FamilyMember();
+            member.setFullName(values.get("full_name"));
+            if (member.getFullName() == null) {
+                errors.add(new String[] { String.valueOf(rowNumber), "full_name: is required for a member" });
+            }
+            member.setGender(parse(rowNumber, values, "gender", v -> enumValue(Gender.class, v)));
+            member.setDateOfBirth(parse(rowNumber, values, "date_of_birth", HouseholdImportService::date));
+            member.setRelationshipToHead(values.get("relationship_to_head"));
+            member.setEducation(values.get("education"));
+            member.setOccupation(values.get("occupation"));
+            member.setMonthlyIncome(parse(rowNumber, values, "monthly_income", HouseholdImportService::income));
+            member.setAadhaarNumber(values.get("aadhaar_number"));
+            member.setMobileNumber(values.get("mobile_number"));
+            member.setDisabilityFlag(parse(rowNumber, values, "disability_flag", HouseholdImportService::flag));
+            member.setSeniorCitizenFlag(parse(rowNumber, values, "senior_citizen_flag", HouseholdImportService::flag));
+            entry.getMembers().add(member);
+        }
+
+        private <T> T parse(long rowNumber, Map<String, String> values, String column, Function<String, T> parser) {
+            String value = values.get(column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (IllegalArgumentException e) {
+                errors.add(new String[] { String.valueOf(rowNumber), column + ": " + e.getMessage() });
+                return null;
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("'" + value + "' is not one of "
+                    + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static BigDecimal number(String value) {
+        try {
+            // Thousands separators are common in hand-kept sheets
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + value + "' is not a number");
+        }
+    }
+
+    private static BigDecimal income(String value) {
+        BigDecimal income = number(value);
+        if (income.signum() < 0) {
+            throw new IllegalArgumentException("must not be negative");
+        }
+        return income;
+    }
+
+    private static BigDecimal coordinate(String value, int limit) {
+        BigDecimal coordinate = number(value);
+        if (coordinate.abs().compareTo(BigDecimal.valueOf(limit)) > 0) {
+            throw new IllegalArgumentException("must be between -" + limit + " and " + limit);
+        }
+        return coordinate;
+    }
+
+    private static Date date(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return Date.valueOf(LocalDate.parse(value, format));
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("'" + value + "' is not a date (yyyy-MM-dd or dd/MM/yyyy)");
+    }
+
+    // Accepts the export's "yyyy-MM-dd HH:mm:ss[.f]", ISO date-times and plain dates
+    private static Timestamp timestamp(String value) {
+        try {
+            return Timestamp.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            // not the JDBC format
+        }
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value));
+        } catch (DateTimeParseException e) {
+            return new Timestamp(date(value).getTime());
+        }
+    }
+
+    private static Boolean flag(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "y":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "no":
+            case "n":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("'" + value + "' is not yes/no");
+        }
+    }
+}
@@ -1,31 +1,70 @@
 package com.erfan.warddata.Services;
 
+import com.erfan.warddata.Dto.CompactPageDto;
+import com.erfan.warddata.Dto.CursorPageDto;
+import com.erfan.warddata.Dto.HouseholdListItem;
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Dto.WardStatsDelta;
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Enums.HouseholdField;
+import com.erfan.warddata.Enums.HouseholdOrder;
+import com.erfan.warddata.Enums.RationCardType;
 import com.erfan.warddata.Enums.VisitStatus;
 import com.erfan.warddata.Models.FamilyMember;
 import com.erfan.warddata.Models.Household;
 import com.erfan.warddata.Repos.FamilyMemberRepository;
+import com.erfan.warddata.Repos.HouseholdProjectionRepository;
 import com.erfan.warddata.Repos.HouseholdRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class HouseholdService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final HouseholdRepository householdRepository;
+    private final HouseholdProjectionRepository householdProjectionRepository;
     private final FamilyMemberRepository familyMemberRepository;
     private final AuditLogService auditLogService;
+    private final WardStatsService wardStatsService;
+    private final VisitRollupService visitRollupService;
+    private final AgeBandService ageBandService;
+    private final IncomeDistributionService incomeDistributionService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public HouseholdService(HouseholdRepository householdRepository, FamilyMemberRepository familyMemberRepository,
-            AuditLogService auditLogService) {
+    public HouseholdService(HouseholdRepository householdRepository,
+            HouseholdProjectionRepository householdProjectionRepository, FamilyMemberRepository familyMemberRepository,
+            AuditLogService auditLogService, WardStatsService wardStatsService,
+            VisitRollupService visitRollupService, AgeBandService ageBandService,
+            IncomeDistributionService incomeDistributionService, ApplicationEventPublisher eventPublisher) {
         this.householdRepository = householdRepository;
+        this.householdProjectionRepository = householdProjectionRepository;
         this.familyMemberRepository = familyMemberRepository;
         this.auditLogService = auditLogService;
+        this.wardStatsService = wardStatsService;
+        this.visitRollupService = visitRollupService;
+        this.ageBandService = ageBandService;
+        this.incomeDistributionService = incomeDistributionService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -36,15 +75,105 @@ public class HouseholdService {
         household.setVisitedAt(Timestamp.from(Instant.now()));
 
         Household saved = householdRepository.save(household);
+        wardStatsService.apply(wardId,
+                new WardStatsDelta().household(saved.getVisitStatus(), saved.getRationCardType(), 1));
+        visitRollupService.visitStatusChanged(wardId, agentId, saved.getVisitedAt(), null, saved.getVisitStatus());
+        eventPublisher.publishEvent(new WardDataChangedEvent(wardId));
         auditLogService.log(agentId, "CREATE", "HOUSEHOLD", saved.getId(), wardId,
                 "Created household " + saved.getHouseNumber());
         return saved;
     }
 
+    /**
+     * Creates a household together with its members in one transaction. Ids
+     * come from pooled sequences, so the member inserts go out as one JDBC
+     * batch; the ward counters are updated once and a single audit record
+     * covers the whole entry.
+     */
+    @Transactional
+    public HouseholdWithMembers createHouseholdWithMembers(Long agentId, Long wardId, Household household,
+            List<FamilyMember> members) {
+        household.setId(null);
+        household.setWardId(wardId);
+        household.setCreatedByAgentId(agentId);
+        household.setVisitStatus(VisitStatus.VISITED);
+        household.setVisitedAt(Timestamp.from(Instant.now()));
+        Household saved = householdRepository.save(household);
+
+        List<FamilyMember> newMembers = members != null ? members : List.of();
+        WardStatsDelta delta = new WardStatsDelta().household(saved.getVisitStatus(), saved.getRationCardType(), 1);
+        BigDecimal income = null;
+        for (FamilyMember member : newMembers) {
+            member.setId(null);
+            member.setHouseholdId(saved.getId());
+            delta.member(member.getGender(), member.getSeniorCitizenFlag(), member.getDisabilityFlag(), 1);
+            income = addIncome(income, member.getMonthlyIncome());
+        }
+        List<FamilyMember> savedMembers = familyMemberRepository.saveAll(newMembers);
+
+        wardStatsService.apply(wardId, delta);
+        visitRollupService.visitStatusChanged(wardId, agentId, saved.getVisitedAt(), null, saved.getVisitStatus());
+        if (!savedMembers.isEmpty()) {
+            ageBandService.membersAdded(wardId, savedMembers);
+            incomeDistributionService.householdIncomeChanged(wardId, null, null, saved.getRationCardType(), income);
+        }
+        eventPublisher.publishEvent(new WardDataChangedEvent(wardId));
+        auditLogService.log(agentId, "CREATE", "HOUSEHOLD", saved.getId(), wardId,
+                "Created household " + saved.getHouseNumber() + " with " + savedMembers.size() + " members");
+        return new HouseholdWithMembers(saved, savedMembers);
+    }
+
+    /**
+     * Writes one chunk of an import. Households and members go out as JDBC
+     * batches, and the ward counters, visit rollups, age bands and income buckets
+     * are each updated once for the whole chunk. Visit status and visit time are
+     * taken from the import as given.
+     */
+    @Transactional
+    public int importHouseholds(Long agentId, Long wardId, List<HouseholdWithMembers> entries) {
+        List<Household> households = new ArrayList<>();
+        for (HouseholdWithMembers entry : entries) {
+            Household household = entry.getHousehold();
+            household.setId(null);
+            household.setWardId(wardId);
+            household.setCreatedByAgentId(agentId);
+            households.add(household);
+        }
+        householdRepository.saveAll(households);
+
+        WardStatsDelta delta = new WardStatsDelta();
+        List<FamilyMember> members = new ArrayList<>();
+        for (HouseholdWithMembers entry : entries) {
+            Household household = entry.getHousehold();
+            delta.household(household.getVisitStatus(), household.getRationCardType(), 1);
+            for (FamilyMember member : entry.getMembers()) {
+                member.setId(null);
+                member.setHouseholdId(household.getId());
+                delta.member(member.getGender(), member.getSeniorCitizenFlag(), member.getDisabilityFlag(), 1);
+                members.add(member);
+            }
+        }
+        familyMemberRepository.saveAll(members);
+
+        wardStatsService.apply(wardId, delta);
+        visitRollupService.householdsAdded(wardId, households);
+        if (!members.isEmpty()) {
+            ageBandService.membersAdded(wardId, members);
+            incomeDistributionService.householdsAdded(wardId, entries);
+        }
+        eventPublisher.publishEvent(new WardDataChangedEvent(wardId));
+        auditLogService.log(agentId, "IMPORT", "HOUSEHOLD", null, wardId,
+                "Imported " + households.size() + " households with " + members.size() + " members");
+        return members.size();
+    }
+
     @Transactional
     public Household updateHousehold(Long agentId, Long householdId, Household details) {
-        Household household = householdRepository.findById(householdId)
-                .orElseThrow(() -> new RuntimeException("Household not found"));
+        Household household = lockHousehold(householdId);
+        WardStatsDelta delta = new WardStatsDelta()
+                .household(household.getVisitStatus(), household.getRationCardType(), -1);
+        VisitStatus oldVisitStatus = household.getVisitStatus();
+        RationCardType oldRationCardType = household.getRationCardType();
         // Update logic
         household.setHouseNumber(details.getHouseNumber());
         household.setLandmark(details.getLandmark());
@@ -56,6 +185,16 @@ public class HouseholdService {
         household.setVisitStatus(details.getVisitStatus());
 
         Household updated = householdRepository.save(household);
+        wardStatsService.apply(updated.getWardId(),
+                delta.household(updated.getVisitStatus(), updated.getRationCardType(), 1));
+        visitRollupService.visitStatusChanged(updated.getWardId(), updated.getCreatedByAgentId(),
+                updated.getVisitedAt(), oldVisitStatus, updated.getVisitStatus());
+        if (oldRationCardType != updated.getRationCardType()) {
+            BigDecimal income = incomeDistributionService.householdIncome(updated.getId());
+            incomeDistributionService.householdIncomeChanged(updated.getWardId(), oldRationCardType, income,
+                    updated.getRationCardType(), income);
+        }
+        eventPublisher.publishEvent(new WardDataChangedEvent(updated.getWardId()));
         auditLogService.log(agentId, "UPDATE", "HOUSEHOLD", updated.getId(), updated.getWardId(),
                 "Updated household " + updated.getHouseNumber());
         return updated;
@@ -69,12 +208,131 @@ public class HouseholdService {
         return householdRepository.findByWardId(wardId, pageable);
     }
 
+    /**
+     * Offset listing of a ward in the compact envelope. Without {@code fields}
+     * it returns the list-view projection (id, house number, visit status,
+     * landmark); otherwise only the named fields, plus id. Either way only
+     * those columns are read.
+     */
+    public CompactPageDto<?> listHouseholdsInWard(Long wardId, String fields, Pageable pageable,
+            boolean includeTotal) {
+        int size = pageable.getPageSize();
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        List<Sort.Order> sort = new ArrayList<>();
+        boolean byId = false;
+        for (Sort.Order order : pageable.getSort()) {
+            if (HouseholdField.fromAttribute(order.getProperty()).isEmpty()) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            }
+            sort.add(order);
+            byId |= order.getProperty().equals("id");
+        }
+        // Ties are broken by id on both paths, so rows never repeat or vanish between pages
+        if (!byId) {
+            sort.add(Sort.Order.asc("id"));
+        }
+
+        List<?> content;
+        boolean hasNext;
+        if (fields == null || fields.isBlank()) {
+            Slice<HouseholdListItem> slice = householdRepository.findListItemsByWardId(wardId,
+                    PageRequest.of(pageable.getPageNumber(), size, Sort.by(sort)));
+            content = slice.getContent();
+            hasNext = slice.hasNext();
+        } else {
+            // One extra row tells whether another page follows
+            List<Map<String, Object>> rows = householdProjectionRepository.findFieldsByWardId(wardId,
+                    parseFields(fields), sort, pageable.getOffset(), size + 1);
+            hasNext = rows.size() > size;
+            content = hasNext ? rows.subList(0, size) : rows;
+        }
+
+        CompactPageDto<Object> page = new CompactPageDto<>();
+        page.setContent(new ArrayList<>(content));
+        page.setPage(pageable.getPageNumber());
+        page.setSize(content.size());
+        page.setHasNext(hasNext);
+        if (includeTotal) {
+            page.setTotalElements(householdRepository.countByWardId(wardId));
+        }
+        return page;
+    }
+
+    private static List<HouseholdField> parseFields(String fields) {
+        // id always comes first, so rows can be opened or updated
+        Set<HouseholdField> selected = new LinkedHashSet<>();
+        selected.add(HouseholdField.ID);
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            selected.add(HouseholdField.fromAttribute(name.trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + name.trim()
+                            + "', expected one of " + Arrays.stream(HouseholdField.values())
+                                    .map(HouseholdField::getAttribute).collect(Collectors.toList()))));
+        }
+        return new ArrayList<>(selected);
+    }
+
+    /**
+     * Keyset listing of a ward: each page seeks past the previous one through
+     * the index instead of skipping rows, and no COUNT(*) runs unless
+     * {@code includeTotal} is set.
+     */
+    public CursorPageDto<Household> scrollHouseholdsInWard(Long wardId, HouseholdOrder order, String cursor,
+            int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        HouseholdCursor after = cursor != null && !cursor.isBlank()
+                ? HouseholdCursor.decode(cursor, wardId, order)
+                : null;
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Household> rows;
+        if (order == HouseholdOrder.ID) {
+            rows = householdRepository.findByWardIdAndIdGreaterThanOrderByIdAsc(wardId,
+                    after != null ? after.lastId : 0L, limit);
+        } else if (after == null) {
+            rows = householdRepository.findFirstByHouseNumber(wardId, limit);
+        } else if (after.lastHouseNumber == null) {
+            rows = householdRepository.findAfterNullHouseNumber(wardId, after.lastId, limit);
+        } else {
+            rows = householdRepository.findAfterHouseNumber(wardId, after.lastHouseNumber, after.lastId, limit);
+        }
+
+        CursorPageDto<Household> page = new CursorPageDto<>();
+        boolean hasNext = rows.size() > size;
+        List<Household> content = hasNext ? rows.subList(0, size) : rows;
+        page.setContent(content);
+        page.setSize(content.size());
+        page.setHasNext(hasNext);
+        if (hasNext) {
+            Household last = content.get(content.size() - 1);
+            page.setNextCursor(new HouseholdCursor(wardId, order, last.getId(), last.getHouseNumber()).encode());
+        }
+        if (includeTotal) {
+            page.setTotalElements(householdRepository.countByWardId(wardId));
+        }
+        return page;
+    }
+
     // Family Members
     @Transactional
     public FamilyMember addFamilyMember(Long agentId, Long householdId, FamilyMember member) {
-        Household household = getHousehold(householdId);
+        Household household = lockHousehold(householdId);
+        BigDecimal oldIncome = incomeDistributionService.householdIncome(householdId);
         member.setHouseholdId(householdId);
         FamilyMember saved = familyMemberRepository.save(member);
+        wardStatsService.apply(household.getWardId(), new WardStatsDelta()
+                .member(saved.getGender(), saved.getSeniorCitizenFlag(), saved.getDisabilityFlag(), 1));
+        ageBandService.memberChanged(household.getWardId(), true, null, null, saved.getDateOfBirth(),
+                saved.getGender());
+        incomeDistributionService.householdIncomeChanged(household.getWardId(), household.getRationCardType(),
+                oldIncome, household.getRationCardType(), addIncome(oldIncome, saved.getMonthlyIncome()));
+        eventPublisher.publishEvent(new WardDataChangedEvent(household.getWardId()));
 
         auditLogService.log(agentId, "CREATE", "FAMILY_MEMBER", saved.getId(), household.getWardId(),
                 "Added member " + saved.getFullName());
@@ -83,9 +341,18 @@ public class HouseholdService {
 
     @Transactional
     public FamilyMember updateFamilyMember(Long agentId, Long memberId, FamilyMember details) {
+        Long householdId = familyMemberRepository.findHouseholdIdById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+        Household household = lockHousehold(householdId);
         FamilyMember member = familyMemberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        Household household = getHousehold(member.getHouseholdId());
+        WardStatsDelta delta = new WardStatsDelta()
+                .member(member.getGender(), member.getSeniorCitizenFlag(), member.getDisabilityFlag(), -1);
+        Date oldDateOfBirth = member.getDateOfBirth();
+        Gender oldGender = member.getGender();
+        BigDecimal oldMemberIncome = member.getMonthlyIncome();
+        // Read before the member is modified, so the query's auto-flush sees the old row
+        BigDecimal oldIncome = incomeDistributionService.householdIncome(household.getId());
 
         member.setFullName(details.getFullName());
         member.setGender(details.getGender());
@@ -100,12 +367,34 @@ public class HouseholdService {
         member.setSeniorCitizenFlag(details.getSeniorCitizenFlag());
 
         FamilyMember updated = familyMemberRepository.save(member);
+        wardStatsService.apply(household.getWardId(), delta
+                .member(updated.getGender(), updated.getSeniorCitizenFlag(), updated.getDisabilityFlag(), 1));
+        ageBandService.memberChanged(household.getWardId(), false, oldDateOfBirth, oldGender,
+                updated.getDateOfBirth(), updated.getGender());
+        BigDecimal newIncome = addIncome(oldIncome, updated.getMonthlyIncome());
+        if (oldMemberIncome != null) {
+            newIncome = newIncome.subtract(oldMemberIncome);
+        }
+        incomeDistributionService.householdIncomeChanged(household.getWardId(), household.getRationCardType(),
+                oldIncome, household.getRationCardType(), newIncome);
+        eventPublisher.publishEvent(new WardDataChangedEvent(household.getWardId()));
         auditLogService.log(agentId, "UPDATE", "FAMILY_MEMBER", updated.getId(), household.getWardId(),
                 "Updated member " + updated.getFullName());
         return updated;
     }
 
+    // Held until commit, so the old values read below cannot go stale under a concurrent write
+    private Household lockHousehold(Long householdId) {
+        return householdRepository.findByIdForUpdate(householdId)
+                .orElseThrow(() -> new RuntimeException("Household not found"));
+    }
+
     public List<FamilyMember> getFamilyMembers(Long householdId) {
         return familyMemberRepository.findByHouseholdId(householdId);
     }
+
+    private static BigDecimal addIncome(BigDecimal householdIncome, BigDecimal memberIncome) {
+        BigDecimal total = householdIncome != null ? householdIncome : BigDecimal.ZERO;
+        return memberIncome != null ? total.add(memberIncome) : total;
+    }
 }
@@ -0,0 +1,232 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.ImportJobDto;
+import com.erfan.warddata.Enums.ImportJobStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs household imports in the background. The upload is spooled to disk
+ * before the request returns; the import itself and its error report run on
+ * the job pool. Like export jobs, state lives in memory and does not survive
+ * a restart.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final HouseholdImportService householdImportService;
+    private final WardService wardService;
+
+    private final Path spoolDir;
+    private final int perUserLimit;
+    private final Duration resultTtl;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(HouseholdImportService householdImportService, WardService wardService,
+            @Value("${import.jobs.spool-dir:${java.io.tmpdir}/warddata-imports}") String spoolDir,
+            @Value("${import.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${import.jobs.queue-capacity:10}") int queueCapacity,
+            @Value("${import.jobs.max-per-user:1}") int perUserLimit,
+            @Value("${import.jobs.result-ttl-minutes:120}") long resultTtlMinutes) throws IOException {
+        this.householdImportService = householdImportService;
+        this.wardService = wardService;
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+        clearSpoolDirectory();
+        this.perUserLimit = perUserLimit;
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "import-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public synchronized ImportJobDto submit(Long userId, Long wardId, MultipartFile upload) {
+        String fileName = upload.getOriginalFilename() != null ? upload.getOriginalFilename() : "";
+        if (!HouseholdImportService.isSupported(fileName)) {
+            throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+        }
+        if (upload.isEmpty()) {
+            throw new IllegalArgumentException("The uploaded file is empty");
+        }
+        long active = jobs.values().stream()
+                .filter(j -> j.userId.equals(userId) && !j.isFinished())
+                .count();
+        if (active >= perUserLimit) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "You already have " + active + " imports running");
+        }
+
+        wardService.getWardById(wardId);
+        String id = UUID.randomUUID().toString();
+        String extension = fileName.substring(fileName.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        ImportJob job = new ImportJob(id, userId, wardId, fileName, spoolDir.resolve(id + extension),
+                spoolDir.resolve(id + "-errors.csv"));
+        try {
+            upload.transferTo(job.upload);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store the upload", e);
+        }
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(job.upload);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Import queue is full, try again later");
+        }
+        return job.toDto();
+    }
+
+    public ImportJobDto getJob(Long userId, Long wardId, String jobId) {
+        return findJob(userId, wardId, jobId).toDto();
+    }
+
+    /**
+     * Returns the error report of a finished job.
+     */
+    public Path getErrorReport(Long userId, Long wardId, String jobId) {
+        ImportJob job = findJob(userId, wardId, jobId);
+        if (!job.isFinished() || !Files.exists(job.errorReport)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import is " + job.status);
+        }
+        return job.errorReport;
+    }
+
+    private ImportJob findJob(Long userId, Long wardId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        // Other users' jobs are reported as missing rather than forbidden
+        if (job == null || !job.wardId.equals(wardId) || !job.userId.equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        job.status = ImportJobStatus.RUNNING;
+        try {
+            householdImportService.importFile(job.userId, job.wardId, job.upload, job.errorReport, job.progress);
+            job.completedAt = Instant.now();
+            job.status = ImportJobStatus.COMPLETED;
+        } catch (Exception e) {
+            // Chunks written before the failure stay imported; the counters say how far it got
+            log.error("Import job {} for ward {} failed", job.id, job.wardId, e);
+            job.error = e.getMessage();
+            job.completedAt = Instant.now();
+            job.status = ImportJobStatus.FAILED;
+        } finally {
+            deleteQuietly(job.upload);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${import.jobs.cleanup-interval-ms:60000}")
+    public void expireOldResults() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.completedAt.isBefore(cutoff)) {
+                deleteQuietly(job.errorReport);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void clearSpoolDirectory() throws IOException {
+        // Jobs live in memory, so files left by a previous run can never be fetched or expired
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private class ImportJob {
+        private final String id;
+        private final Long userId;
+        private final Long wardId;
+        private final String fileName;
+        private final Path upload;
+        private final Path errorReport;
+        private final Instant createdAt = Instant.now();
+        private final HouseholdImportService.Progress progress = new HouseholdImportService.Progress();
+
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        ImportJob(String id, Long userId, Long wardId, String fileName, Path upload, Path errorReport) {
+            this.id = id;
+            this.userId = userId;
+            this.wardId = wardId;
+            this.fileName = fileName;
+            this.upload = upload;
+            this.errorReport = errorReport;
+        }
+
+        boolean isFinished() {
+            return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+        }
+
+        ImportJobDto toDto() {
+            ImportJobDto dto = new ImportJobDto();
+            dto.setJobId(id);
+            dto.setWardId(wardId);
+            dto.setFileName(fileName);
+            dto.setStatus(status);
+            dto.setRowsRead(progress.getRowsRead());
+            dto.setHouseholdsImported(progress.getHouseholdsImported());
+            dto.setMembersImported(progress.getMembersImported());
+            dto.setHouseholdsRejected(progress.getHouseholdsRejected());
+            dto.setRowsRejected(progress.getRowsRejected());
+            dto.setCreatedAt(createdAt);
+            dto.setCompletedAt(completedAt);
+            if (completedAt != null) {
+                dto.setExpiresAt(completedAt.plus(resultTtl));
+            }
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.erfan.warddata.Services;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads import files row by row without building a document. CSV goes through
+ * the commons-csv parser; XLSX through the POI event model, which streams the
+ * first sheet's XML with SAX, so memory use does not depend on the file size.
+ * The first row is the header; values are handed over keyed by the lower-cased
+ * header name, with blank cells left out.
+ */
+final class ImportRowReader {
+
+    @FunctionalInterface
+    interface RowHandler {
+        // rowNumber is 1-based and counts the header, as spreadsheet apps show it
+        void row(long rowNumber, Map<String, String> values);
+    }
+
+    private ImportRowReader() {
+    }
+
+    static void readCsv(Path file, RowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                CSVParser parser = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true)
+                        .setIgnoreEmptyLines(true).setTrim(true).build().parse(reader)) {
+            List<String> header = new ArrayList<>();
+            for (String name : parser.getHeaderNames()) {
+                header.add(headerKey(name));
+            }
+            for (CSVRecord record : parser) {
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < header.size() && i < record.size(); i++) {
+                    put(values, header.get(i), record.get(i));
+                }
+                // Line numbers, so multi-line quoted cells still point at the right row
+                handler.row(parser.getCurrentLineNumber(), values);
+            }
+        }
+    }
+
+    static void readXlsx(Path file, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                        new SheetRows(handler), new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Includes failures of the row handler itself
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not read the spreadsheet: " + e.getMessage(), e);
+        }
+    }
+
+    private static String headerKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+    }
+
+    private static void put(Map<String, String> values, String key, String value) {
+        if (!key.isEmpty() && value != null && !value.isBlank()) {
+            values.put(key, value.trim());
+        }
+    }
+
+    private static class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private final List<String> header = new ArrayList<>();
+        private boolean headerRead;
+        private Map<String, String> current;
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = new HashMap<>();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (!headerRead) {
+                while (header.size() <= column) {
+                    header.add("");
+                }
+                header.set(column, headerKey(formattedValue));
+            } else if (column < header.size()) {
+                put(current, header.get(column), formattedValue);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // The first row with any cells is the header
+            if (!headerRead) {
+                headerRead = !header.isEmpty();
+            } else if (!current.isEmpty()) {
+                handler.row(rowNum + 1L, current);
+            }
+        }
+    }
+
+    // Date cells come through as ISO dates whatever their display format
+    private static class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Dto.IncomeDistributionDto;
+import com.erfan.warddata.Dto.IncomeQuantilesDto;
+import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Models.WardIncomeBucket;
+import com.erfan.warddata.Repos.FamilyMemberRepository;
+import com.erfan.warddata.Repos.HouseholdRepository;
+import com.erfan.warddata.Repos.WardIncomeBucketRepository;
+import com.erfan.warddata.Repos.WardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Income distribution per ward and ration card type, kept as a mergeable
+ * {@link IncomeSketch} in {@code ward_income_buckets}. Member and household
+ * writes move the household between buckets in their own transaction; reads
+ * merge the buckets of one or more wards and never touch the member rows.
+ */
+@Service
+public class IncomeDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IncomeDistributionService.class);
+
+    private static final List<Double> DEFAULT_QUANTILES = List.of(0.1, 0.25, 0.5, 0.75, 0.9);
+    private static final String NO_CARD = "NONE";
+
+    private final WardIncomeBucketRepository bucketRepository;
+    private final FamilyMemberRepository familyMemberRepository;
+    private final HouseholdRepository householdRepository;
+    private final WardRepository wardRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public IncomeDistributionService(WardIncomeBucketRepository bucketRepository,
+            FamilyMemberRepository familyMemberRepository, HouseholdRepository householdRepository,
+            WardRepository wardRepository, PlatformTransactionManager transactionManager) {
+        this.bucketRepository = bucketRepository;
+        this.familyMemberRepository = familyMemberRepository;
+        this.householdRepository = householdRepository;
+        this.wardRepository = wardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Summed monthly income of a household, or {@code null} when it has no
+     * members and is therefore not in the sketch.
+     */
+    public BigDecimal householdIncome(Long householdId) {
+        Object[] row = familyMemberRepository.findIncomeTotal(householdId).get(0);
+        if (((Number) row[0]).longValue() == 0) {
+            return null;
+        }
+        return row[1] instanceof BigDecimal ? (BigDecimal) row[1] : new BigDecimal(row[1].toString());
+    }
+
+    /**
+     * Moves a household between buckets. A {@code null} income means the
+     * household is not counted on that side (no members yet).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void householdIncomeChanged(Long wardId, RationCardType oldType, BigDecimal oldIncome,
+            RationCardType newType, BigDecimal newIncome) {
+        if (oldIncome != null && newIncome != null && oldType == newType
+                && IncomeSketch.bucketOf(oldIncome) == IncomeSketch.bucketOf(newIncome)) {
+            return;
+        }
+        if (oldIncome != null) {
+            bucketRepository.addHouseholds(wardId, cardKey(oldType), IncomeSketch.bucketOf(oldIncome), -1);
+        }
+        if (newIncome != null) {
+            bucketRepository.addHouseholds(wardId, cardKey(newType), IncomeSketch.bucketOf(newIncome), 1);
+        }
+    }
+
+    /**
+     * Adds newly created households in bulk, one counter update per bucket.
+     * Households without members are skipped, as in {@link #householdIncome}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void householdsAdded(Long wardId, Collection<HouseholdWithMembers> households) {
+        Map<String, Map<Integer, Long>> counts = new HashMap<>();
+        for (HouseholdWithMembers entry : households) {
+            if (entry.getMembers().isEmpty()) {
+                continue;
+            }
+            BigDecimal income = BigDecimal.ZERO;
+            for (FamilyMember member : entry.getMembers()) {
+                if (member.getMonthlyIncome() != null) {
+                    income = income.add(member.getMonthlyIncome());
+                }
+            }
+            counts.computeIfAbsent(cardKey(entry.getHousehold().getRationCardType()), k -> new HashMap<>())
+                    .merge(IncomeSketch.bucketOf(income), 1L, Long::sum);
+        }
+        for (Map.Entry<String, Map<Integer, Long>> card : counts.entrySet()) {
+            for (Map.Entry<Integer, Long> bucket : card.getValue().entrySet()) {
+                bucketRepository.addHouseholds(wardId, card.getKey(), bucket.getKey(), bucket.getValue());
+            }
+        }
+    }
+
+    // Fills the buckets once for data recorded before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            if (bucketRepository.count() == 0 && householdRepository.count() > 0) {
+                rebuild(null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Startup rebuild of income sketches failed", e);
+        }
+    }
+
+    /**
+     * Recounts the buckets of the given wards (all wards when empty) from the
+     * member incomes, one ward per transaction. Bucketing is done here rather
+     * than in SQL so it matches the incremental updates exactly. Returns the
+     * number of buckets written.
+     */
+    public int rebuild(Collection<Long> wardIds) {
+        List<Long> ids = new ArrayList<>();
+        if (wardIds == null || wardIds.isEmpty()) {
+            for (Ward ward : wardRepository.findAll()) {
+                ids.add(ward.getId());
+            }
+        } else {
+            ids.addAll(wardIds);
+        }
+        int buckets = 0;
+        for (Long wardId : ids) {
+            Integer written = transactionTemplate.execute(status -> {
+                Map<String, Map<Integer, Long>> counts = new HashMap<>();
+                for (Object[] row : familyMemberRepository.findHouseholdIncomes(wardId)) {
+                    String card = row[0] != null ? (String) row[0] : NO_CARD;
+                    BigDecimal income = row[1] instanceof BigDecimal ? (BigDecimal) row[1]
+                            : new BigDecimal(row[1].toString());
+                    counts.computeIfAbsent(card, k -> new HashMap<>())
+                            .merge(IncomeSketch.bucketOf(income), 1L, Long::sum);
+                }
+                bucketRepository.deleteByWardIdNative(wardId);
+                int rows = 0;
+                for (Map.Entry<String, Map<Integer, Long>> card : counts.entrySet()) {
+                    for (Map.Entry<Integer, Long> bucket : card.getValue().entrySet()) {
+                        bucketRepository.addHouseholds(wardId, card.getKey(), bucket.getKey(), bucket.getValue());
+                        rows++;
+                    }
+                }
+                return rows;
+            });
+            buckets += written != null ? written : 0;
+        }
+        log.info("Rebuilt income sketches for {} wards ({} buckets)", ids.size(), buckets);
+        return buckets;
+    }
+
+    public IncomeDistributionDto getWardDistribution(Long wardId, List<Double> quantiles) {
+        Ward ward = wardRepository.findById(wardId).orElseThrow(() -> new RuntimeException("Ward not found"));
+        return distribution(ward.getName(), List.of(wardId), quantiles);
+    }
+
+    // Merges the sketches of every ward in the local body
+    public IncomeDistributionDto getLocalBodyDistribution(String localBody, List<Double> quantiles) {
+        String key = LocalBodyAnalyticsService.key(localBody);
+        List<Long> wardIds = new ArrayList<>();
+        String name = null;
+        for (Ward ward : wardRepository.findAll()) {
+            if (ward.getLocalBody() != null && LocalBodyAnalyticsService.key(ward.getLocalBody()).equals(key)) {
+                wardIds.add(ward.getId());
+                name = ward.getLocalBody().trim();
+            }
+        }
+        if (wardIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Local body not found");
+        }
+        return distribution(name, wardIds, quantiles);
+    }
+
+    private IncomeDistributionDto distribution(String scope, List<Long> wardIds, List<Double> quantiles) {
+        List<Double> qs = quantiles == null || quantiles.isEmpty() ? DEFAULT_QUANTILES : quantiles;
+        for (Double q : qs) {
+            if (q == null || q < 0 || q > 1) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1");
+            }
+        }
+
+        Map<String, IncomeSketch> byCard = new LinkedHashMap<>();
+        for (RationCardType type : RationCardType.values()) {
+            byCard.put(type.name(), new IncomeSketch());
+        }
+        byCard.put(NO_CARD, new IncomeSketch());
+        for (WardIncomeBucket bucket : bucketRepository.findByWardIdIn(wardIds)) {
+            byCard.computeIfAbsent(bucket.getRationCardType(), k -> new IncomeSketch())
+                    .add(bucket.getBucket(), bucket.getHouseholds());
+        }
+        IncomeSketch all = new IncomeSketch();
+        byCard.values().forEach(all::merge);
+
+        IncomeDistributionDto dto = new IncomeDistributionDto();
+        dto.setScope(scope);
+        dto.setWardCount(wardIds.size());
+        dto.setRelativeError(IncomeSketch.RELATIVE_ERROR);
+        dto.setAll(toDto(all, qs));
+        Map<String, IncomeQuantilesDto> cards = new LinkedHashMap<>();
+        byCard.forEach((card, sketch) -> cards.put(card, toDto(sketch, qs)));
+        dto.setByRationCardType(cards);
+        return dto;
+    }
+
+    private static IncomeQuantilesDto toDto(IncomeSketch sketch, List<Double> quantiles) {
+        IncomeQuantilesDto dto = new IncomeQuantilesDto();
+        dto.setHouseholds(sketch.getCount());
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Double q : quantiles) {
+            values.put("p" + BigDecimal.valueOf(q * 100).stripTrailingZeros().toPlainString(), sketch.quantile(q));
+        }
+        dto.setQuantiles(values);
+        return dto;
+    }
+
+    private static String cardKey(RationCardType type) {
+        return Objects.toString(type, NO_CARD);
+    }
+}
@@ -0,0 +1,76 @@
+package com.erfan.warddata.Services;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Quantile sketch of monthly household incomes with relative-error buckets
+ * (the DDSketch layout). Bucket {@code i >= 1} holds incomes in
+ * {@code (gamma^(i-2), gamma^(i-1)]}, and bucket 0 holds incomes below one rupee.
+ * Any quantile is answered within {@link #RELATIVE_ERROR} of the true value.
+ * <p>
+ * Buckets are fixed, so two sketches merge by adding their counts, and a
+ * household is taken out again by decrementing its bucket. That is what lets
+ * the per-ward counters follow member edits and add up to local-body totals.
+ */
+public final class IncomeSketch {
+
+    public static final double RELATIVE_ERROR = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ERROR) / (1 - RELATIVE_ERROR);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+
+    public static int bucketOf(BigDecimal income) {
+        double value = income != null ? income.doubleValue() : 0;
+        if (value < 1) {
+            return 0;
+        }
+        return 1 + (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    // Midpoint of the bucket in relative terms, so both edges are within the error bound
+    static double valueOf(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return 2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1);
+    }
+
+    public void add(int bucket, long households) {
+        if (households == 0) {
+            return;
+        }
+        buckets.merge(bucket, households, Long::sum);
+        count += households;
+    }
+
+    public void merge(IncomeSketch other) {
+        other.buckets.forEach(this::add);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Income at quantile {@code q} (0..1) using the lower-rank convention, or
+     * {@code null} when the sketch is empty.
+     */
+    public Long quantile(double q) {
+        if (count <= 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return Math.round(valueOf(bucket.getKey()));
+            }
+        }
+        return Math.round(valueOf(buckets.lastKey()));
+    }
+}
@@ -0,0 +1,229 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.AgeBandCountDto;
+import com.erfan.warddata.Dto.LocalBodyDashboardDto;
+import com.erfan.warddata.Dto.WardAnalyticsDto;
+import com.erfan.warddata.Dto.WardComparisonDto;
+import com.erfan.warddata.Models.WardStats;
+import com.erfan.warddata.Repos.WardRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Dashboards above the ward level: local body (panchayat / municipality) and
+ * all wards together. Every ward's counters are read from {@code ward_stats} in
+ * one pass and the local-body totals are merged from those ward aggregates, so
+ * nothing is recounted from households. The whole snapshot is cached for a
+ * short TTL and shared by every request.
+ */
+@Service
+public class LocalBodyAnalyticsService {
+
+    private static final Object SNAPSHOT_KEY = new Object();
+
+    private static final Map<String, ToDoubleFunction<WardComparisonDto>> SORT_KEYS = new LinkedHashMap<>();
+
+    static {
+        SORT_KEYS.put("visitedPercent", WardComparisonDto::getVisitedPercent);
+        SORT_KEYS.put("totalHouseholds", WardComparisonDto::getTotalHouseholds);
+        SORT_KEYS.put("visitedHouseholds", WardComparisonDto::getVisitedHouseholds);
+        SORT_KEYS.put("verifiedHouseholds", WardComparisonDto::getVerifiedHouseholds);
+        SORT_KEYS.put("totalPopulation", WardComparisonDto::getTotalPopulation);
+        SORT_KEYS.put("bplCount", WardComparisonDto::getBplCount);
+        SORT_KEYS.put("aayCount", WardComparisonDto::getAayCount);
+        SORT_KEYS.put("seniorCitizens", WardComparisonDto::getSeniorCitizens);
+        SORT_KEYS.put("disabledPersons", WardComparisonDto::getDisabledPersons);
+    }
+
+    private final WardRepository wardRepository;
+    private final AgeBandService ageBandService;
+    private final LoadingCache<Object, Snapshot> snapshot;
+
+    public LocalBodyAnalyticsService(WardRepository wardRepository, AgeBandService ageBandService,
+            @Value("${analytics.local-body.ttl-seconds:30}") long ttlSeconds) {
+        this.wardRepository = wardRepository;
+        this.ageBandService = ageBandService;
+        this.snapshot = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(key -> loadSnapshot());
+    }
+
+    public List<LocalBodyDashboardDto> getLocalBodies() {
+        return new ArrayList<>(snapshot.get(SNAPSHOT_KEY).localBodies.values());
+    }
+
+    public LocalBodyDashboardDto getLocalBodyDashboard(String localBody) {
+        LocalBodyDashboardDto dto = snapshot.get(SNAPSHOT_KEY).localBodies.get(key(localBody));
+        if (dto == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Local body not found");
+        }
+        return dto;
+    }
+
+    /**
+     * Ranked comparison of the wards of {@code localBody}, or of every ward when
+     * it is null. Ties keep ward id order and share no rank.
+     */
+    public List<WardComparisonDto> compareWards(String localBody, String sortBy, boolean ascending) {
+        String sortKey = sortBy != null ? sortBy : "visitedPercent";
+        ToDoubleFunction<WardComparisonDto> metric = SORT_KEYS.get(sortKey);
+        if (metric == null) {
+            throw new IllegalArgumentException("sortBy must be one of " + SORT_KEYS.keySet());
+        }
+        Snapshot current = snapshot.get(SNAPSHOT_KEY);
+        if (localBody != null && !current.localBodies.containsKey(key(localBody))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Local body not found");
+        }
+
+        List<WardComparisonDto> rows = new ArrayList<>();
+        for (WardComparisonDto ward : current.wards) {
+            if (localBody == null || key(localBody).equals(key(ward.getLocalBody()))) {
+                rows.add(copy(ward));
+            }
+        }
+        Comparator<WardComparisonDto> order = Comparator.comparingDouble(metric);
+        rows.sort(ascending ? order : order.reversed());
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setRank(i + 1);
+        }
+        return rows;
+    }
+
+    private Snapshot loadSnapshot() {
+        Map<Long, List<AgeBandCountDto>> histograms = ageBandService.getAllHistograms();
+        Instant generatedAt = Instant.now();
+        Snapshot result = new Snapshot();
+
+        for (Object[] row : wardRepository.findWardStatsRows()) {
+            Long wardId = ((Number) row[0]).longValue();
+            String wardName = (String) row[1];
+            String localBody = (String) row[2];
+            WardStats stats = new WardStats();
+            stats.setTotalHouseholds(count(row[3]));
+            stats.setVisitedHouseholds(count(row[4]));
+            stats.setVerifiedHouseholds(count(row[5]));
+            stats.setAplCount(count(row[6]));
+            stats.setBplCount(count(row[7]));
+            stats.setAayCount(count(row[8]));
+            stats.setTotalPopulation(count(row[9]));
+            stats.setMaleCount(count(row[10]));
+            stats.setFemaleCount(count(row[11]));
+            stats.setSeniorCitizens(count(row[12]));
+            stats.setDisabledPersons(count(row[13]));
+            WardAnalyticsDto ward = AnalyticsService.fromStats(stats, wardName,
+                    histograms.getOrDefault(wardId, AgeBandService.emptyHistogram()));
+
+            result.wards.add(toComparison(wardId, localBody, ward));
+            if (localBody == null || localBody.isBlank()) {
+                continue;
+            }
+            LocalBodyDashboardDto body = result.localBodies.computeIfAbsent(key(localBody), k -> {
+                LocalBodyDashboardDto dto = new LocalBodyDashboardDto();
+                dto.setLocalBody(localBody.trim());
+                dto.setTotals(emptyTotals());
+                dto.setGeneratedAt(generatedAt);
+                return dto;
+            });
+            body.setWardCount(body.getWardCount() + 1);
+            merge(body.getTotals(), ward);
+        }
+        return result;
+    }
+
+    private static WardAnalyticsDto emptyTotals() {
+        WardAnalyticsDto totals = new WardAnalyticsDto();
+        totals.setAgeBands(AgeBandService.emptyHistogram());
+        return totals;
+    }
+
+    // Every ward counter is additive, so totals are plain sums
+    static void merge(WardAnalyticsDto into, WardAnalyticsDto ward) {
+        into.setTotalHouseholds(into.getTotalHouseholds() + ward.getTotalHouseholds());
+        into.setVisitedHouseholds(into.getVisitedHouseholds() + ward.getVisitedHouseholds());
+        into.setNotVisitedHouseholds(into.getNotVisitedHouseholds() + ward.getNotVisitedHouseholds());
+        into.setVerifiedHouseholds(into.getVerifiedHouseholds() + ward.getVerifiedHouseholds());
+        into.setAplCount(into.getAplCount() + ward.getAplCount());
+        into.setBplCount(into.getBplCount() + ward.getBplCount());
+        into.setAayCount(into.getAayCount() + ward.getAayCount());
+        into.setTotalPopulation(into.getTotalPopulation() + ward.getTotalPopulation());
+        into.setMaleCount(into.getMaleCount() + ward.getMaleCount());
+        into.setFemaleCount(into.getFemaleCount() + ward.getFemaleCount());
+        into.setOtherGenderCount(into.getOtherGenderCount() + ward.getOtherGenderCount());
+        into.setSeniorCitizens(into.getSeniorCitizens() + ward.getSeniorCitizens());
+        into.setDisabledPersons(into.getDisabledPersons() + ward.getDisabledPersons());
+        List<AgeBandCountDto> bands = into.getAgeBands();
+        for (int i = 0; i < bands.size(); i++) {
+            AgeBandCountDto total = bands.get(i);
+            AgeBandCountDto band = ward.getAgeBands().get(i);
+            total.setMale(total.getMale() + band.getMale());
+            total.setFemale(total.getFemale() + band.getFemale());
+            total.setOther(total.getOther() + band.getOther());
+            total.setTotal(total.getTotal() + band.getTotal());
+        }
+    }
+
+    private static WardComparisonDto toComparison(Long wardId, String localBody, WardAnalyticsDto ward) {
+        WardComparisonDto dto = new WardComparisonDto();
+        dto.setWardId(wardId);
+        dto.setWardName(ward.getWardName());
+        dto.setLocalBody(localBody);
+        dto.setTotalHouseholds(ward.getTotalHouseholds());
+        dto.setVisitedHouseholds(ward.getVisitedHouseholds());
+        dto.setVerifiedHouseholds(ward.getVerifiedHouseholds());
+        dto.setVisitedPercent(ward.getTotalHouseholds() > 0
+                ? Math.round(1000.0 * ward.getVisitedHouseholds() / ward.getTotalHouseholds()) / 10.0
+                : 0);
+        dto.setTotalPopulation(ward.getTotalPopulation());
+        dto.setBplCount(ward.getBplCount());
+        dto.setAayCount(ward.getAayCount());
+        dto.setSeniorCitizens(ward.getSeniorCitizens());
+        dto.setDisabledPersons(ward.getDisabledPersons());
+        return dto;
+    }
+
+    // Ranks are per request, so the cached rows are never modified
+    private static WardComparisonDto copy(WardComparisonDto ward) {
+        WardComparisonDto dto = new WardComparisonDto();
+        dto.setWardId(ward.getWardId());
+        dto.setWardName(ward.getWardName());
+        dto.setLocalBody(ward.getLocalBody());
+        dto.setTotalHouseholds(ward.getTotalHouseholds());
+        dto.setVisitedHouseholds(ward.getVisitedHouseholds());
+        dto.setVerifiedHouseholds(ward.getVerifiedHouseholds());
+        dto.setVisitedPercent(ward.getVisitedPercent());
+        dto.setTotalPopulation(ward.getTotalPopulation());
+        dto.setBplCount(ward.getBplCount());
+        dto.setAayCount(ward.getAayCount());
+        dto.setSeniorCitizens(ward.getSeniorCitizens());
+        dto.setDisabledPersons(ward.getDisabledPersons());
+        return dto;
+    }
+
+    // Local body names are entered by hand; match them ignoring case and padding
+    static String key(String localBody) {
+        return localBody != null ? localBody.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static long count(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static class Snapshot {
+        private final List<WardComparisonDto> wards = new ArrayList<>();
+        private final Map<String, LocalBodyDashboardDto> localBodies = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,179 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.VisitCountDto;
+import com.erfan.warddata.Enums.VisitStatus;
+import com.erfan.warddata.Models.Household;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Repos.HouseholdRepository;
+import com.erfan.warddata.Repos.VisitDailyRollupRepository;
+import com.erfan.warddata.Repos.WardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily visit counts per ward and agent, kept in {@code visit_daily_rollups}.
+ * A household counts on the day of its {@code visitedAt} for the agent that
+ * created it, while its status is VISITED or VERIFIED. Household writes adjust
+ * the buckets in their own transaction; the backfill rebuilds them from the
+ * households table.
+ */
+@Service
+public class VisitRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitRollupService.class);
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_RANGE_DAYS = 366;
+    // Bucket for households without a recorded agent
+    private static final long UNKNOWN_AGENT = 0L;
+
+    private final VisitDailyRollupRepository rollupRepository;
+    private final HouseholdRepository householdRepository;
+    private final WardRepository wardRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public VisitRollupService(VisitDailyRollupRepository rollupRepository, HouseholdRepository householdRepository,
+            WardRepository wardRepository, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.householdRepository = householdRepository;
+        this.wardRepository = wardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Moves a household in or out of its day bucket when its visit status
+     * changes. Use {@code null} as the old status for a new household.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void visitStatusChanged(Long wardId, Long agentId, Timestamp visitedAt, VisitStatus oldStatus,
+            VisitStatus newStatus) {
+        boolean wasCounted = isVisit(oldStatus);
+        boolean isCounted = isVisit(newStatus);
+        if (visitedAt == null || wasCounted == isCounted) {
+            return;
+        }
+        rollupRepository.addVisits(wardId, visitedAt.toLocalDateTime().toLocalDate(),
+                agentId != null ? agentId : UNKNOWN_AGENT, isCounted ? 1 : -1);
+    }
+
+    /**
+     * Counts newly created households into their day buckets with one upsert
+     * per (day, agent) bucket instead of one per household.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void householdsAdded(Long wardId, Collection<Household> households) {
+        Map<LocalDate, Map<Long, Long>> buckets = new HashMap<>();
+        for (Household household : households) {
+            if (household.getVisitedAt() == null || !isVisit(household.getVisitStatus())) {
+                continue;
+            }
+            Long agentId = household.getCreatedByAgentId() != null ? household.getCreatedByAgentId() : UNKNOWN_AGENT;
+            buckets.computeIfAbsent(household.getVisitedAt().toLocalDateTime().toLocalDate(), day -> new HashMap<>())
+                    .merge(agentId, 1L, Long::sum);
+        }
+        buckets.forEach((day, agents) -> agents.forEach((agentId, visits) ->
+                rollupRepository.addVisits(wardId, day, agentId, visits)));
+    }
+
+    private static boolean isVisit(VisitStatus status) {
+        return status != null && status != VisitStatus.NOT_VISITED;
+    }
+
+    // Fills the rollups once for data recorded before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (rollupRepository.count() == 0 && householdRepository.count() > 0) {
+                backfill(null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Startup backfill of visit rollups failed", e);
+        }
+    }
+
+    /**
+     * Rebuilds the buckets of the given wards (all wards when empty) from the
+     * households table, one ward per transaction. Returns the number of buckets
+     * written.
+     */
+    public int backfill(Collection<Long> wardIds) {
+        List<Long> ids = new ArrayList<>();
+        if (wardIds == null || wardIds.isEmpty()) {
+            for (Ward ward : wardRepository.findAll()) {
+                ids.add(ward.getId());
+            }
+        } else {
+            ids.addAll(wardIds);
+        }
+        int buckets = 0;
+        for (Long wardId : ids) {
+            Integer written = transactionTemplate.execute(status -> {
+                rollupRepository.deleteByWardId(wardId);
+                return rollupRepository.rebuildWard(wardId);
+            });
+            buckets += written != null ? written : 0;
+        }
+        log.info("Backfilled visit rollups for {} wards ({} buckets)", ids.size(), buckets);
+        return buckets;
+    }
+
+    public List<VisitCountDto> wardSeries(Long wardId, LocalDate from, LocalDate to) {
+        LocalDate[] range = resolveRange(from, to);
+        return fill(rollupRepository.sumByDayForWard(wardId, range[0], range[1]), range);
+    }
+
+    /**
+     * Daily visits of one agent, across all wards or only {@code wardIds} when
+     * given.
+     */
+    public List<VisitCountDto> agentSeries(Long agentId, Collection<Long> wardIds, LocalDate from, LocalDate to) {
+        LocalDate[] range = resolveRange(from, to);
+        List<Object[]> rows = wardIds == null
+                ? rollupRepository.sumByDayForAgent(agentId, range[0], range[1])
+                : rollupRepository.sumByDayForAgentInWards(agentId, wardIds, range[0], range[1]);
+        return fill(rows, range);
+    }
+
+    private static LocalDate[] resolveRange(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return new LocalDate[] { start, end };
+    }
+
+    // One point per day of the range, zero where no bucket exists
+    private static List<VisitCountDto> fill(List<Object[]> rows, LocalDate[] range) {
+        Map<LocalDate, Long> visits = new HashMap<>();
+        for (Object[] row : rows) {
+            LocalDate day = row[0] instanceof Date ? ((Date) row[0]).toLocalDate() : (LocalDate) row[0];
+            visits.put(day, ((Number) row[1]).longValue());
+        }
+        List<VisitCountDto> series = new ArrayList<>();
+        for (LocalDate day = range[0]; !day.isAfter(range[1]); day = day.plusDays(1)) {
+            series.add(new VisitCountDto(day, visits.getOrDefault(day, 0L)));
+        }
+        return series;
+    }
+}
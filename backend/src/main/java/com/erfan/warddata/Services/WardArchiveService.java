@@ -0,0 +1,197 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Enums.ExportFormat;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Repos.WardRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports many wards into one ZIP archive. Wards are rendered in parallel into
+ * spool files and each file is appended to the archive as soon as it is ready,
+ * so the archive streams out while later wards are still rendering.
+ */
+@Service
+public class WardArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(WardArchiveService.class);
+
+    private final ExportService exportService;
+    private final WardRepository wardRepository;
+    private final Path spoolDir;
+    private final ExecutorService workers;
+
+    public WardArchiveService(ExportService exportService, WardRepository wardRepository,
+            @Value("${export.jobs.spool-dir:${java.io.tmpdir}/warddata-exports}") String spoolDir,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int dbPoolSize,
+            @Value("${export.archive.reserved-connections:4}") int reservedConnections) throws IOException {
+        this.exportService = exportService;
+        this.wardRepository = wardRepository;
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+
+        // Each worker holds at most one connection; keep some for regular traffic
+        int poolSize = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                dbPoolSize - reservedConnections));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "ward-archive-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Streams a ZIP with one export per ward. A {@code null} or empty list exports
+     * every ward. A ward that fails to render is recorded as an error entry
+     * instead of aborting the whole archive.
+     */
+    public void writeWardsArchive(List<Long> wardIds, ExportFormat format, OutputStream out) throws IOException {
+        List<Ward> wards = new ArrayList<>((wardIds == null || wardIds.isEmpty())
+                ? wardRepository.findAll(Sort.by("id"))
+                : wardRepository.findAllById(wardIds));
+        wards.sort(Comparator.comparing(Ward::getId));
+
+        CompletionService<RenderedWard> completion = new ExecutorCompletionService<>(workers);
+        List<Future<RenderedWard>> futures = new ArrayList<>(wards.size());
+        for (Ward ward : wards) {
+            futures.add(completion.submit(() -> render(ward, format)));
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Xlsx and gzip-like payloads barely compress; favour throughput
+        zip.setLevel(Deflater.BEST_SPEED);
+        Set<String> usedNames = new HashSet<>();
+        try {
+            for (int i = 0; i < wards.size(); i++) {
+                RenderedWard rendered = takeNext(completion);
+                String name = format.fileName(rendered.ward.getName());
+                if (!usedNames.add(name)) {
+                    name = format.fileName(rendered.ward.getName() + "_" + rendered.ward.getId());
+                    usedNames.add(name);
+                }
+
+                if (rendered.error != null) {
+                    zip.putNextEntry(new ZipEntry("ward_" + rendered.ward.getId() + "_ERROR.txt"));
+                    zip.write(rendered.error.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    zip.putNextEntry(new ZipEntry(name));
+                    try {
+                        Files.copy(rendered.file, zip);
+                    } finally {
+                        Files.deleteIfExists(rendered.file);
+                    }
+                }
+                zip.closeEntry();
+                zip.flush();
+            }
+            zip.finish();
+        } finally {
+            discardUnconsumed(futures);
+        }
+    }
+
+    private RenderedWard render(Ward ward, ExportFormat format) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(spoolDir, "ward_" + ward.getId() + "_", "." + format.getExtension());
+            try (OutputStream fileOut = Files.newOutputStream(file)) {
+                exportService.exportWardData(ward.getId(), format, fileOut, processed -> {
+                });
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Archive was abandoned while this ward rendered; nobody will consume the file
+                deleteQuietly(file);
+                return new RenderedWard(ward, null, "Cancelled");
+            }
+            return new RenderedWard(ward, file, null);
+        } catch (Exception e) {
+            log.error("Archive export of ward {} failed", ward.getId(), e);
+            deleteQuietly(file);
+            return new RenderedWard(ward, null, "Export failed: " + e.getMessage());
+        }
+    }
+
+    private RenderedWard takeNext(CompletionService<RenderedWard> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building ward archive", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Ward archive worker failed", e.getCause());
+        }
+    }
+
+    /**
+     * Cancels wards that have not been written (e.g. the client went away) and
+     * removes spool files of wards that finished but were never consumed.
+     */
+    private void discardUnconsumed(List<Future<RenderedWard>> futures) {
+        for (Future<RenderedWard> future : futures) {
+            if (future.cancel(true) || future.isCancelled()) {
+                continue;
+            }
+            try {
+                RenderedWard rendered = future.get();
+                deleteQuietly(rendered.file);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // render() reports failures in its result; nothing to clean up
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null)
+            return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete archive spool file {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static class RenderedWard {
+        private final Ward ward;
+        private final Path file;
+        private final String error;
+
+        RenderedWard(Ward ward, Path file, String error) {
+            this.ward = ward;
+            this.file = file;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.erfan.warddata.Services;
+
+/**
+ * Published whenever households, members or derived counters of a ward change.
+ * Listeners that act on committed data use {@code @TransactionalEventListener}.
+ */
+public class WardDataChangedEvent {
+    private final Long wardId;
+
+    public WardDataChangedEvent(Long wardId) {
+        this.wardId = wardId;
+    }
+
+    public Long getWardId() {
+        return wardId;
+    }
+}
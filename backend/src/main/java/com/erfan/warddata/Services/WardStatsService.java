@@ -0,0 +1,145 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.WardAnalyticsDto;
+import com.erfan.warddata.Dto.WardStatsDelta;
+import com.erfan.warddata.Dto.WardStatsDriftDto;
+import com.erfan.warddata.Models.Ward;
+import com.erfan.warddata.Models.WardStats;
+import com.erfan.warddata.Repos.WardRepository;
+import com.erfan.warddata.Repos.WardStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@code ward_stats} counters. Writers apply deltas inside their
+ * own transaction; the reconcile job recounts every ward from the base tables,
+ * fixes the counters and reports wards that had drifted.
+ */
+@Service
+public class WardStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(WardStatsService.class);
+
+    private final WardStatsRepository wardStatsRepository;
+    private final WardRepository wardRepository;
+    private final AnalyticsService analyticsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WardStatsService(WardStatsRepository wardStatsRepository, WardRepository wardRepository,
+            AnalyticsService analyticsService, PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher) {
+        this.wardStatsRepository = wardStatsRepository;
+        this.wardRepository = wardRepository;
+        this.analyticsService = analyticsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Adds {@code delta} to the ward's counters. Must run inside the transaction
+     * that made the change, so counters and data commit or roll back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long wardId, WardStatsDelta delta) {
+        if (!delta.isEmpty()) {
+            wardStatsRepository.applyDelta(wardId, delta);
+        }
+    }
+
+    // Seeds counters for data written before ward_stats existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        try {
+            reconcileAll();
+        } catch (RuntimeException e) {
+            // Dashboards fall back to live counts for wards without a counter row
+            log.error("Startup reconcile of ward_stats failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${analytics.ward-stats.reconcile-cron:0 30 2 * * *}")
+    public void scheduledReconcile() {
+        reconcileAll();
+    }
+
+    /**
+     * Rebuilds the counters of every ward and returns the wards whose stored
+     * counters did not match the data.
+     */
+    public List<WardStatsDriftDto> reconcileAll() {
+        List<WardStatsDriftDto> drifted = new ArrayList<>();
+        for (Ward ward : wardRepository.findAll()) {
+            WardStatsDriftDto drift = transactionTemplate.execute(status -> reconcileWard(ward.getId()));
+            if (drift != null) {
+                log.warn("ward_stats drift for ward {} corrected: {}", ward.getId(), drift.getDifferences());
+                drifted.add(drift);
+                eventPublisher.publishEvent(new WardDataChangedEvent(ward.getId()));
+            }
+        }
+        log.info("Reconciled ward_stats for all wards, {} had drifted", drifted.size());
+        return drifted;
+    }
+
+    private WardStatsDriftDto reconcileWard(Long wardId) {
+        // Lock the counter row first: writers queue behind it, and the recount
+        // below then sees every write that committed before the lock
+        wardStatsRepository.insertIfMissing(wardId);
+        WardStats stats = wardStatsRepository.findByIdForUpdate(wardId)
+                .orElseThrow(() -> new IllegalStateException("ward_stats row missing for ward " + wardId));
+        WardAnalyticsDto actual = analyticsService.computeWardAnalytics(wardId);
+
+        Map<String, Long> differences = new LinkedHashMap<>();
+        diff(differences, "totalHouseholds", stats.getTotalHouseholds(), actual.getTotalHouseholds());
+        diff(differences, "visitedHouseholds", stats.getVisitedHouseholds(), actual.getVisitedHouseholds());
+        diff(differences, "verifiedHouseholds", stats.getVerifiedHouseholds(), actual.getVerifiedHouseholds());
+        diff(differences, "aplCount", stats.getAplCount(), actual.getAplCount());
+        diff(differences, "bplCount", stats.getBplCount(), actual.getBplCount());
+        diff(differences, "aayCount", stats.getAayCount(), actual.getAayCount());
+        diff(differences, "totalPopulation", stats.getTotalPopulation(), actual.getTotalPopulation());
+        diff(differences, "maleCount", stats.getMaleCount(), actual.getMaleCount());
+        diff(differences, "femaleCount", stats.getFemaleCount(), actual.getFemaleCount());
+        diff(differences, "seniorCitizens", stats.getSeniorCitizens(), actual.getSeniorCitizens());
+        diff(differences, "disabledPersons", stats.getDisabledPersons(), actual.getDisabledPersons());
+        if (differences.isEmpty()) {
+            return null;
+        }
+
+        stats.setTotalHouseholds(actual.getTotalHouseholds());
+        stats.setVisitedHouseholds(actual.getVisitedHouseholds());
+        stats.setVerifiedHouseholds(actual.getVerifiedHouseholds());
+        stats.setAplCount(actual.getAplCount());
+        stats.setBplCount(actual.getBplCount());
+        stats.setAayCount(actual.getAayCount());
+        stats.setTotalPopulation(actual.getTotalPopulation());
+        stats.setMaleCount(actual.getMaleCount());
+        stats.setFemaleCount(actual.getFemaleCount());
+        stats.setSeniorCitizens(actual.getSeniorCitizens());
+        stats.setDisabledPersons(actual.getDisabledPersons());
+        stats.setUpdatedAt(Timestamp.from(Instant.now()));
+        wardStatsRepository.save(stats);
+        return new WardStatsDriftDto(wardId, differences);
+    }
+
+    private static void diff(Map<String, Long> differences, String name, long stored, long actual) {
+        if (stored != actual) {
+            differences.put(name, actual - stored);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- Secondary indexes for the hot query paths. The first four used to be declared
+-- with @Index on the entities and are skipped where Hibernate already created them.
+
+-- Ward dashboard recount (findWardAnalyticsRow) and the income rebuild (findHouseholdIncomes)
+CREATE INDEX idx_households_ward_analytics ON households (ward_id, visit_status, ration_card_type);
+
+-- Members of a household (findByHouseholdId) and the member half of the ward recount
+CREATE INDEX idx_family_members_analytics ON family_members (household_id, gender, senior_citizen_flag, disability_flag);
+
+-- Nightly age band roll: members with a given birth date
+CREATE INDEX idx_family_members_dob ON family_members (date_of_birth);
+
+-- Agent timeseries across wards
+CREATE INDEX idx_visit_rollups_agent_day ON visit_daily_rollups (agent_id, visit_date);
+
+-- Active agent count for the global stats (users.email is already unique)
+CREATE INDEX idx_users_role_active ON users (role, active);
@@ -0,0 +1,8 @@
+-- Cursor listing ordered by house number: seeks on (ward_id, house_number, id),
+-- with id supplied by the InnoDB primary key suffix
+CREATE INDEX idx_households_ward_house_number ON households (ward_id, house_number);
+
+-- Cursor listing and export chunks by id (findByWardIdAndIdGreaterThanOrderByIdAsc): seeks
+-- on (ward_id, id) from the primary key suffix, with no sort. Every other ward_id index
+-- puts further columns before id, so it could only filter the ward and then sort it.
+CREATE INDEX idx_households_ward_id ON households (ward_id);
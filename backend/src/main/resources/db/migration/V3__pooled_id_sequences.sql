@@ -0,0 +1,8 @@
+-- Households and family members take ids from pooled sequences (allocation size 50),
+-- which Hibernate keeps as one-row tables on MySQL. Start them past the ids handed out
+-- by AUTO_INCREMENT: the first block is next_val - 49 .. next_val.
+DELETE FROM households_seq;
+INSERT INTO households_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM households;
+
+DELETE FROM family_members_seq;
+INSERT INTO family_members_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM family_members;
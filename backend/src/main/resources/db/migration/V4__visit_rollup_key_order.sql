@@ -0,0 +1,5 @@
+-- VisitDailyRollup declares its key as (ward_id, visit_date, agent_id), but Hibernate
+-- orders @IdClass columns by name when it creates the table, which gave
+-- (agent_id, visit_date, ward_id). Ward ranges (sumByDayForWard, deleteByWardId) could
+-- then not seek on the key, and idx_visit_rollups_agent_day repeated its prefix.
+ALTER TABLE visit_daily_rollups DROP PRIMARY KEY, ADD PRIMARY KEY (ward_id, visit_date, agent_id);
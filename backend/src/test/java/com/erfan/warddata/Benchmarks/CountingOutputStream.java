@@ -0,0 +1,25 @@
+package com.erfan.warddata.Benchmarks;
+
+import java.io.OutputStream;
+
+/**
+ * Discards output and only counts bytes, so benchmarks measure rendering rather
+ * than I/O.
+ */
+public class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,125 @@
+package com.erfan.warddata.Benchmarks;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Fixtures.WardFixtures;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import com.erfan.warddata.Services.ExportService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel export time with POI autosizing (the previous behaviour) against the
+ * streaming width estimator now used by {@link ExportService#renderExcel}.
+ * Autosizing rescans every merged region for each flushed cell, so it grows
+ * quadratically: a 10k-household ward takes over an hour, hence single-shot
+ * timing and a timeout above JMH's ten-minute default. Run that path with
+ * {@code -wi 0 -i 1} unless four hours are to spare.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Timeout(time = 2, timeUnit = TimeUnit.HOURS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class ExcelColumnWidthBenchmark {
+
+    @Param({ "10000" })
+    public int households;
+
+    private List<HouseholdWithMembers> ward;
+    private ExportService exportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ward = WardFixtures.ward(households);
+        exportService = new ExportService(null, null, null);
+    }
+
+    @Benchmark
+    public long widthEstimator() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.renderExcel("Benchmark", ward.iterator(), out);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long autoSizeColumn() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        renderWithAutoSize(ward, out);
+        return out.getCount();
+    }
+
+    /**
+     * Same cells as the export renderer, sized with autoSizeColumn as before.
+     */
+    private static void renderWithAutoSize(List<HouseholdWithMembers> ward, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Ward Benchmark");
+            sheet.trackAllColumnsForAutoSizing();
+            String[] columns = { "Name", "Relation", "Gender", "DOB", "Education", "Occupation", "Mobile",
+                    "Aadhaar", "Flags" };
+            int rowIdx = 0;
+            for (HouseholdWithMembers group : ward) {
+                Household h = group.getHousehold();
+                sheet.createRow(rowIdx++).createCell(0).setCellValue("HOUSEHOLD: " + h.getHouseNumber());
+                // Unchecked like the export renderer, so both paths pay the same merge cost
+                sheet.addMergedRegionUnsafe(new CellRangeAddress(rowIdx - 1, rowIdx - 1, 0, 8));
+
+                Row detailRow = sheet.createRow(rowIdx++);
+                detailRow.createCell(0).setCellValue("Address:");
+                detailRow.createCell(1).setCellValue(h.getFullAddress());
+                detailRow.createCell(4).setCellValue("Landmark:");
+                detailRow.createCell(5).setCellValue(h.getLandmark() != null ? h.getLandmark() : "-");
+                detailRow.createCell(7).setCellValue("Status:");
+                detailRow.createCell(8).setCellValue(h.getVisitStatus().name());
+
+                Row header = sheet.createRow(rowIdx++);
+                for (int i = 0; i < columns.length; i++) {
+                    header.createCell(i).setCellValue(columns[i]);
+                }
+                for (FamilyMember m : group.getMembers()) {
+                    Row row = sheet.createRow(rowIdx++);
+                    row.createCell(0).setCellValue(m.getFullName());
+                    row.createCell(1).setCellValue(m.getRelationshipToHead());
+                    row.createCell(2).setCellValue(m.getGender().name());
+                    row.createCell(3).setCellValue(m.getDateOfBirth().toString());
+                    row.createCell(4).setCellValue(m.getEducation());
+                    row.createCell(5).setCellValue(m.getOccupation());
+                    row.createCell(6).setCellValue(m.getMobileNumber());
+                    row.createCell(7).setCellValue(m.getAadhaarNumber());
+                    row.createCell(8).setCellValue(Boolean.TRUE.equals(m.getSeniorCitizenFlag()) ? "Sr." : "");
+                }
+                rowIdx++;
+            }
+            for (int i = 0; i <= 8; i++) {
+                sheet.autoSizeColumn(i);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.erfan.warddata.Benchmarks;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Fixtures.WardFixtures;
+import com.erfan.warddata.Services.ExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the export renderers over synthetic wards. One operation is one
+ * full ward export; with {@code -prof gc}, divide {@code gc.alloc.rate.norm} by
+ * the {@code households} parameter for bytes allocated per household.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class ExportRendererBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int households;
+
+    private List<HouseholdWithMembers> ward;
+    private ExportService exportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ward = WardFixtures.ward(households);
+        exportService = new ExportService(null, new FixtureCursorRepository(ward), null);
+    }
+
+    @Benchmark
+    public long excel() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.renderExcel("Benchmark", ward.iterator(), out);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long pdf() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.renderPdf("Benchmark", ward.iterator(), out);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long csv() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.exportWardDataToCsv(1L, out, false);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long csvGzip() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.exportWardDataToCsv(1L, out, true);
+        return out.getCount();
+    }
+}
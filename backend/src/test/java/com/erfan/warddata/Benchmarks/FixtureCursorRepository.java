@@ -0,0 +1,88 @@
+package com.erfan.warddata.Benchmarks;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import com.erfan.warddata.Repos.ExportCursorRepository;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Replays in-memory fixtures through the cursor callback, shaped like the rows
+ * Connector/J returns for the household/member join.
+ */
+public class FixtureCursorRepository extends ExportCursorRepository {
+
+    private final List<HouseholdWithMembers> ward;
+
+    public FixtureCursorRepository(List<HouseholdWithMembers> ward) {
+        super(new DriverManagerDataSource());
+        this.ward = ward;
+    }
+
+    @Override
+    public void streamWardHouseholdMembers(Long wardId, RowCallbackHandler handler) {
+        Object[] row = new Object[HOUSEHOLD_MEMBER_COLUMNS.size()];
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getObject":
+                            return row[(int) args[0] - 1];
+                        case "getLong":
+                            Object value = row[(int) args[0] - 1];
+                            return value != null ? ((Number) value).longValue() : 0L;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        try {
+            for (HouseholdWithMembers group : ward) {
+                fillHousehold(row, group.getHousehold());
+                if (group.getMembers().isEmpty()) {
+                    fillMember(row, null);
+                    handler.processRow(rs);
+                }
+                for (FamilyMember m : group.getMembers()) {
+                    fillMember(row, m);
+                    handler.processRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void fillHousehold(Object[] row, Household h) {
+        row[0] = h.getId();
+        row[1] = h.getWardId();
+        row[2] = h.getHouseNumber();
+        row[3] = h.getLandmark();
+        row[4] = h.getFullAddress();
+        row[5] = h.getRationCardNumber();
+        row[6] = h.getRationCardType() != null ? h.getRationCardType().name() : null;
+        row[7] = h.getVisitStatus() != null ? h.getVisitStatus().name() : null;
+        row[8] = h.getVisitedAt() != null ? h.getVisitedAt().toLocalDateTime() : null;
+        row[9] = h.getLatitude();
+        row[10] = h.getLongitude();
+    }
+
+    private static void fillMember(Object[] row, FamilyMember m) {
+        row[11] = m != null ? m.getId() : null;
+        row[12] = m != null ? m.getFullName() : null;
+        row[13] = m != null && m.getGender() != null ? m.getGender().name() : null;
+        row[14] = m != null ? m.getDateOfBirth() : null;
+        row[15] = m != null ? m.getRelationshipToHead() : null;
+        row[16] = m != null ? m.getEducation() : null;
+        row[17] = m != null ? m.getOccupation() : null;
+        row[18] = m != null ? m.getMonthlyIncome() : null;
+        row[19] = m != null ? m.getAadhaarNumber() : null;
+        row[20] = m != null ? m.getMobileNumber() : null;
+        row[21] = m != null ? m.getDisabilityFlag() : null;
+        row[22] = m != null ? m.getSeniorCitizenFlag() : null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.erfan.warddata.Fixtures;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Enums.VisitStatus;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic in-memory wards for benchmarks and tests: no database needed. Member counts
+ * (1-8, about 4 on average) and the Latin/Malayalam name mix follow what the
+ * field data looks like.
+ */
+public final class WardFixtures {
+
+    private static final String[] LATIN_NAMES = { "Rajesh Kumar", "Anitha Thomas", "Mohammed Ashraf",
+            "Sreelakshmi P", "Joseph Varghese", "Fathima Beevi", "Gopalakrishnan Nair", "Aiswarya Menon" };
+    private static final String[] MALAYALAM_NAMES = { "രാമകൃഷ്ണൻ", "ലക്ഷ്മി നാരായണൻ", "കുമാരി", "അബ്ദുൾ റഹ്മാൻ",
+            "മേരിക്കുട്ടി ജോസഫ്" };
+    private static final String[] RELATIONS = { "Head", "Spouse", "Son", "Daughter", "Mother", "Father" };
+    private static final String[] EDUCATION = { "SSLC", "Plus Two", "Degree", "Post Graduate", "Primary", "" };
+    private static final String[] OCCUPATIONS = { "Fisherman", "Teacher", "Daily Wage Labourer", "Student",
+            "Homemaker", "Gulf Returnee", "Auto Driver" };
+    private static final int[] MEMBER_COUNTS = { 1, 2, 3, 3, 4, 4, 4, 5, 5, 6, 7, 8 };
+
+    private WardFixtures() {
+    }
+
+    public static List<HouseholdWithMembers> ward(int households) {
+        Random random = new Random(42);
+        List<HouseholdWithMembers> ward = new ArrayList<>(households);
+        long memberId = 1;
+        for (int i = 1; i <= households; i++) {
+            Household h = new Household();
+            h.setId((long) i);
+            h.setWardId(1L);
+            h.setHouseNumber("WD-" + i);
+            h.setLandmark(random.nextInt(3) == 0 ? null : "Near Temple Junction " + (i % 40));
+            h.setFullAddress("House " + i + ", Panchayat Road, Kozhikode District, Kerala 673" + (100 + i % 900));
+            h.setRationCardNumber(String.valueOf(1_000_000_000L + i));
+            h.setRationCardType(RationCardType.values()[random.nextInt(RationCardType.values().length)]);
+            h.setLatitude(BigDecimal.valueOf(11.25 + random.nextDouble() / 10));
+            h.setLongitude(BigDecimal.valueOf(75.78 + random.nextDouble() / 10));
+            h.setVisitStatus(VisitStatus.VISITED);
+            h.setVisitedAt(Timestamp.valueOf("2024-06-01 10:15:00"));
+            h.setCreatedByAgentId(7L);
+
+            int count = MEMBER_COUNTS[random.nextInt(MEMBER_COUNTS.length)];
+            List<FamilyMember> members = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                FamilyMember m = new FamilyMember();
+                m.setId(memberId++);
+                m.setHouseholdId(h.getId());
+                m.setFullName(random.nextInt(4) == 0
+                        ? MALAYALAM_NAMES[random.nextInt(MALAYALAM_NAMES.length)]
+                        : LATIN_NAMES[random.nextInt(LATIN_NAMES.length)]);
+                m.setGender(j % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+                m.setDateOfBirth(Date.valueOf(LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12),
+                        1 + random.nextInt(28))));
+                m.setRelationshipToHead(RELATIONS[Math.min(j, RELATIONS.length - 1)]);
+                m.setEducation(EDUCATION[random.nextInt(EDUCATION.length)]);
+                m.setOccupation(OCCUPATIONS[random.nextInt(OCCUPATIONS.length)]);
+                m.setMonthlyIncome(BigDecimal.valueOf(random.nextInt(40) * 1000L));
+                m.setAadhaarNumber(String.format("%04d %04d %04d", random.nextInt(10000), random.nextInt(10000),
+                        random.nextInt(10000)));
+                m.setMobileNumber("9" + (100_000_000L + random.nextInt(900_000_000)));
+                m.setDisabilityFlag(random.nextInt(25) == 0);
+                m.setSeniorCitizenFlag(m.getDateOfBirth().toLocalDate().isBefore(LocalDate.of(1964, 1, 1)));
+                members.add(m);
+            }
+            ward.add(new HouseholdWithMembers(h, members));
+        }
+        return ward;
+    }
+}
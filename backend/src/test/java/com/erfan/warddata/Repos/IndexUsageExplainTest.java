@@ -0,0 +1,173 @@
+package com.erfan.warddata.Repos;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that each index from db/migration serves the query it
+ * was added for. Needs a MySQL schema the application has started against once
+ * (so Hibernate and the migrations have run), for example:
+ *
+ * <pre>
+ * mvn test -Dtest=IndexUsageExplainTest -Dexplain.jdbc.url=jdbc:mysql://localhost:3306/ward \
+ *     -Dexplain.jdbc.user=app_user -Dexplain.jdbc.password=... -Dexplain.seed=true
+ * </pre>
+ *
+ * With {@code explain.seed} the schema is first filled from
+ * {@code db/explain-seed.sql} (20 wards, 20k households, 80k members, a year
+ * of visit rollups), since plans over empty tables say little. The seed
+ * replaces its own id ranges, so use a scratch schema for it.
+ *
+ * Native queries are read from the repository annotations, with literals in
+ * place of the parameters. Derived queries are written out as the SQL
+ * Hibernate generates for them. Each case names the one key the table must be
+ * read through.
+ */
+@EnabledIfSystemProperty(named = "explain.jdbc.url", matches = ".+")
+class IndexUsageExplainTest {
+
+    @BeforeAll
+    static void seed() {
+        if (Boolean.getBoolean("explain.seed")) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/explain-seed.sql")).execute(dataSource());
+        }
+    }
+
+    static Stream<Arguments> indexedQueries() {
+        return Stream.of(
+                // HouseholdRepository.findWardAnalyticsRow: the household half is answered from the analytics
+                // index alone; the member half only needs h.id, which the narrower ward index covers as well
+                Arguments.of(nativeSql(HouseholdRepository.class, "findWardAnalyticsRow", Map.of("wardId", "1")),
+                        "h", Set.of("idx_households_ward_analytics", "idx_households_ward_id")),
+                // ... and the member half reads members per household
+                Arguments.of(nativeSql(HouseholdRepository.class, "findWardAnalyticsRow", Map.of("wardId", "1")),
+                        "fm", Set.of("idx_family_members_analytics")),
+                // FamilyMemberRepository.findHouseholdIncomes (income sketch rebuild): households of the
+                // ward with their card type come from the analytics index, grouped on the implicit id
+                Arguments.of(nativeSql(FamilyMemberRepository.class, "findHouseholdIncomes", Map.of("wardId", "1")),
+                        "h", Set.of("idx_households_ward_analytics")),
+                Arguments.of(nativeSql(FamilyMemberRepository.class, "findHouseholdIncomes", Map.of("wardId", "1")),
+                        "fm", Set.of("idx_family_members_analytics")),
+                // FamilyMemberRepository.findByHouseholdId
+                Arguments.of("select fm1_0.id,fm1_0.aadhaar_number,fm1_0.created_at,fm1_0.date_of_birth,"
+                        + "fm1_0.disability_flag,fm1_0.education,fm1_0.full_name,fm1_0.gender,fm1_0.household_id,"
+                        + "fm1_0.mobile_number,fm1_0.monthly_income,fm1_0.occupation,fm1_0.relationship_to_head,"
+                        + "fm1_0.senior_citizen_flag,fm1_0.updated_at from family_members fm1_0 "
+                        + "where fm1_0.household_id=1",
+                        "fm1_0", Set.of("idx_family_members_analytics")),
+                // WardAgeBandStatsRepository.countByBirthDates (nightly age band roll)
+                Arguments.of(nativeSql(WardAgeBandStatsRepository.class, "countByBirthDates",
+                        Map.of("birthDates", "'1966-10-18'")),
+                        "fm", Set.of("idx_family_members_dob")),
+                // VisitDailyRollupRepository.sumByDayForWard: a range of the clustered key
+                Arguments.of(nativeSql(VisitDailyRollupRepository.class, "sumByDayForWard",
+                        Map.of("wardId", "1", "from", "'2026-01-01'", "to", "'2026-01-31'")),
+                        "r", Set.of("PRIMARY")),
+                // VisitDailyRollupRepository.sumByDayForAgent
+                Arguments.of(nativeSql(VisitDailyRollupRepository.class, "sumByDayForAgent",
+                        Map.of("agentId", "1000", "from", "'2026-01-01'", "to", "'2026-01-31'")),
+                        "r", Set.of("idx_visit_rollups_agent_day")),
+                // UserRepository.countByUserTypeAndActiveTrue
+                Arguments.of("select count(u1_0.id) from users u1_0 where u1_0.role='AGENT' and u1_0.active=1",
+                        "u1_0", Set.of("idx_users_role_active")),
+                // HouseholdRepository.findByWardIdAndIdGreaterThanOrderByIdAsc (cursor listing by id, export chunks)
+                Arguments.of("select h1_0.id,h1_0.created_by_agent_id,h1_0.full_address,h1_0.house_number,"
+                        + "h1_0.landmark,h1_0.latitude,h1_0.longitude,h1_0.ration_card_number,"
+                        + "h1_0.ration_card_type,h1_0.updated_at,h1_0.visit_status,h1_0.visited_at,h1_0.ward_id "
+                        + "from households h1_0 where h1_0.ward_id=1 and h1_0.id>0 order by h1_0.id limit 21",
+                        "h1_0", Set.of("idx_households_ward_id")),
+                // HouseholdRepository.findAfterHouseNumber (cursor listing by house number)
+                Arguments.of("select h1_0.id,h1_0.created_by_agent_id,h1_0.full_address,h1_0.house_number,"
+                        + "h1_0.landmark,h1_0.latitude,h1_0.longitude,h1_0.ration_card_number,"
+                        + "h1_0.ration_card_type,h1_0.updated_at,h1_0.visit_status,h1_0.visited_at,h1_0.ward_id "
+                        + "from households h1_0 where h1_0.ward_id=1 and (h1_0.house_number>'12' "
+                        + "or (h1_0.house_number='12' and h1_0.id>40)) order by h1_0.house_number,h1_0.id limit 21",
+                        "h1_0", Set.of("idx_households_ward_house_number")));
+    }
+
+    // Every access to the table (a query may read it more than once) must go through an expected key
+    @ParameterizedTest
+    @MethodSource("indexedQueries")
+    void readsTableThroughIndex(String sql, String table, Set<String> expectedKeys) {
+        List<Map<String, Object>> plan = explain(sql);
+        List<Object> keys = plan.stream()
+                .filter(row -> table.equals(row.get("table")))
+                .map(row -> row.get("key"))
+                .collect(Collectors.toList());
+        boolean used = !keys.isEmpty() && keys.stream().allMatch(expectedKeys::contains);
+        assertTrue(used, () -> "Expected " + table + " to be read through " + expectedKeys + " for [" + sql
+                + "] but the plan was " + plan);
+    }
+
+    // UserRepository.findByEmail goes through the unique key. When no row matches,
+    // the const lookup is resolved while planning and no key is reported; MySQL
+    // and MariaDB word that differently.
+    @ParameterizedTest
+    @MethodSource("emailLookup")
+    void findsUserByEmailThroughUniqueKey(String sql) {
+        Map<String, Object> plan = explain(sql).get(0);
+        String extra = String.valueOf(plan.get("Extra"));
+        boolean constLookup = "const".equals(plan.get("type")) || extra.contains("no matching row in const table")
+                || extra.contains("Impossible WHERE noticed after reading const tables");
+        assertTrue(constLookup, () -> "Expected a unique key lookup for [" + sql + "] but the plan was " + plan);
+    }
+
+    static Stream<String> emailLookup() {
+        // One of the seeded users
+        return Stream.of("select u1_0.id from users u1_0 where u1_0.email='user1001@example.org'");
+    }
+
+    private static final Pattern PARAMETER = Pattern.compile(":(\\w+)");
+
+    /**
+     * The native SQL of a repository method, with each named parameter
+     * replaced by the given literal.
+     */
+    private static String nativeSql(Class<?> repository, String method, Map<String, String> literals) {
+        Method target = Arrays.stream(repository.getMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(repository.getSimpleName() + "." + method));
+        String sql = target.getAnnotation(Query.class).value();
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            String literal = literals.get(matcher.group(1));
+            if (literal == null) {
+                throw new IllegalArgumentException("No literal for :" + matcher.group(1) + " in " + method);
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(literal));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static List<Map<String, Object>> explain(String sql) {
+        return new JdbcTemplate(dataSource()).queryForList("EXPLAIN " + sql);
+    }
+
+    private static DriverManagerDataSource dataSource() {
+        return new DriverManagerDataSource(System.getProperty("explain.jdbc.url"),
+                System.getProperty("explain.jdbc.user", "app_user"), System.getProperty("explain.jdbc.password", ""));
+    }
+}
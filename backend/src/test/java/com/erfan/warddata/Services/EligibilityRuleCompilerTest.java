@@ -0,0 +1,163 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.EligibilityConditionDto;
+import com.erfan.warddata.Dto.EligibilityRuleDto;
+import com.erfan.warddata.Dto.MemberClauseDto;
+import com.erfan.warddata.Services.EligibilityRuleCompiler.HouseholdFacts;
+import com.erfan.warddata.Services.EligibilityRuleCompiler.MemberFacts;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Member clause quantifiers and the SQL-style handling of missing values.
+ */
+class EligibilityRuleCompilerTest {
+
+    private static final EligibilityConditionDto SENIOR = condition("age", "gte", 60);
+
+    @Test
+    void anyDefaultsToOneMatchingMember() {
+        Predicate<HouseholdFacts> rule = memberRule(null, null, SENIOR);
+        assertTrue(rule.test(household(member(64), member(30))));
+        assertFalse(rule.test(household(member(40), member(30))));
+        assertFalse(rule.test(household()));
+    }
+
+    @Test
+    void anyWithMinCountNeedsThatManyMatchingMembers() {
+        Predicate<HouseholdFacts> rule = memberRule("any", 2, SENIOR);
+        assertFalse(rule.test(household(member(64), member(30))));
+        assertTrue(rule.test(household(member(64), member(70), member(30))));
+    }
+
+    @Test
+    void minCountBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> memberRule("ANY", 0, SENIOR));
+    }
+
+    @Test
+    void noneHoldsWhenNoMemberMatches() {
+        Predicate<HouseholdFacts> rule = memberRule("NONE", null, SENIOR);
+        assertTrue(rule.test(household(member(40), member(30))));
+        assertFalse(rule.test(household(member(64), member(30))));
+        assertTrue(rule.test(household()));
+    }
+
+    @Test
+    void allNeedsEveryMemberAndAtLeastOne() {
+        Predicate<HouseholdFacts> rule = memberRule("ALL", null, SENIOR);
+        assertTrue(rule.test(household(member(64), member(70))));
+        assertFalse(rule.test(household(member(64), member(30))));
+        assertFalse(rule.test(household()));
+    }
+
+    @Test
+    void unknownQuantifierIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> memberRule("MOST", null, SENIOR));
+    }
+
+    @Test
+    void missingValueFailsEveryOperatorButIsNull() {
+        MemberFacts unknownAge = member(null);
+        assertFalse(memberTest(condition("age", "eq", 60), unknownAge));
+        assertFalse(memberTest(condition("age", "ne", 60), unknownAge));
+        assertFalse(memberTest(condition("age", "lt", 60), unknownAge));
+        assertFalse(memberTest(condition("age", "in", List.of(60, 61)), unknownAge));
+        assertFalse(memberTest(condition("age", "notIn", List.of(60, 61)), unknownAge));
+        assertFalse(memberTest(condition("age", "notNull", null), unknownAge));
+        assertTrue(memberTest(condition("age", "isNull", null), unknownAge));
+
+        MemberFacts noOccupation = member(30);
+        assertFalse(memberTest(condition("occupation", "ne", "Teacher"), noOccupation));
+        assertFalse(memberTest(condition("occupation", "contains", "a"), noOccupation));
+        assertTrue(memberTest(condition("occupation", "isNull", null), noOccupation));
+    }
+
+    @Test
+    void unsetFlagCountsAsFalse() {
+        MemberFacts member = member(30);
+        assertTrue(memberTest(condition("disabilityFlag", "eq", false), member));
+        assertFalse(memberTest(condition("disabilityFlag", "eq", true), member));
+        assertTrue(memberTest(condition("disabilityFlag", "ne", "true"), member));
+    }
+
+    @Test
+    void textIgnoresCaseAndSurroundingSpaces() {
+        MemberFacts member = member(30);
+        member.occupation = " Daily Wage Labourer";
+        assertTrue(memberTest(condition("occupation", "eq", "daily wage labourer "), member));
+        assertTrue(memberTest(condition("occupation", "contains", "WAGE"), member));
+        assertTrue(memberTest(condition("occupation", "in", List.of("Teacher", "DAILY WAGE LABOURER")), member));
+    }
+
+    @Test
+    void householdConditionsAndMemberClausesMustAllHold() {
+        MemberClauseDto clause = new MemberClauseDto();
+        clause.setWhere(List.of(SENIOR));
+        EligibilityRuleDto rule = new EligibilityRuleDto();
+        rule.setHousehold(List.of(condition("rationCardType", "in", List.of("AAY", "PHH")),
+                condition("monthlyIncome", "lt", "10000")));
+        rule.setMembers(List.of(clause));
+        Predicate<HouseholdFacts> predicate = EligibilityRuleCompiler.compile(rule);
+
+        HouseholdFacts household = household(member(64), member(30));
+        household.rationCardType = "aay";
+        household.members.get(1).monthlyIncome = new BigDecimal("8000");
+        assertTrue(predicate.test(household));
+
+        household.members.get(0).monthlyIncome = new BigDecimal("2000");
+        assertFalse(predicate.test(household));
+    }
+
+    @Test
+    void invalidRulesAreRejectedWhenCompiled() {
+        assertThrows(IllegalArgumentException.class, () -> EligibilityRuleCompiler.compile(null));
+        assertThrows(IllegalArgumentException.class, () -> memberRule(null, null, condition("salary", "gt", 1)));
+        assertThrows(IllegalArgumentException.class, () -> memberRule(null, null, condition("age", "contains", 1)));
+        assertThrows(IllegalArgumentException.class, () -> memberRule(null, null, condition("age", "gt", "old")));
+        assertThrows(IllegalArgumentException.class, () -> memberRule(null, null, condition("age", "in", 60)));
+    }
+
+    private static boolean memberTest(EligibilityConditionDto condition, MemberFacts member) {
+        return memberRule(null, null, condition).test(household(member));
+    }
+
+    private static Predicate<HouseholdFacts> memberRule(String quantifier, Integer minCount,
+            EligibilityConditionDto condition) {
+        MemberClauseDto clause = new MemberClauseDto();
+        clause.setQuantifier(quantifier);
+        clause.setMinCount(minCount);
+        clause.setWhere(List.of(condition));
+        EligibilityRuleDto rule = new EligibilityRuleDto();
+        rule.setMembers(List.of(clause));
+        return EligibilityRuleCompiler.compile(rule);
+    }
+
+    private static EligibilityConditionDto condition(String field, String op, Object value) {
+        EligibilityConditionDto condition = new EligibilityConditionDto();
+        condition.setField(field);
+        condition.setOp(op);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static HouseholdFacts household(MemberFacts... members) {
+        HouseholdFacts household = new HouseholdFacts();
+        household.id = 1L;
+        household.members.addAll(List.of(members));
+        return household;
+    }
+
+    private static MemberFacts member(Integer age) {
+        MemberFacts member = new MemberFacts();
+        member.age = age;
+        return member;
+    }
+}
@@ -0,0 +1,110 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Fixtures.WardFixtures;
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Models.FamilyMember;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Font;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The width estimator against POI autosizing on the fixture ward's Latin and
+ * Malayalam values. Autosizing measures with the fonts the JVM can find.
+ * Build machines usually lack Calibri and fall back to DejaVu Sans, whose
+ * Latin columns come out 1.18 times as wide on this ward (measured: 1.16 to
+ * 1.19 per column), so Latin autosize widths are scaled back by that factor
+ * unless Calibri is installed. Calibri has no Malayalam glyphs, so both sides
+ * measure Malayalam with the same fallback font and are compared directly.
+ */
+class ExcelColumnWidthsTest {
+
+    private static final double DEJAVU_TO_CALIBRI_LATIN = 1.18;
+    private static final double LATIN_TOLERANCE = 0.04;
+    private static final double MALAYALAM_TOLERANCE = 0.06;
+
+    private static final List<HouseholdWithMembers> WARD = WardFixtures.ward(200);
+
+    @Test
+    void latinColumnsMatchAutosize() throws IOException {
+        List<List<String>> columns = new ArrayList<>();
+        columns.add(memberValues(m -> isMalayalam(m.getFullName()) ? null : m.getFullName()));
+        columns.add(memberValues(FamilyMember::getRelationshipToHead));
+        columns.add(memberValues(FamilyMember::getEducation));
+        columns.add(memberValues(FamilyMember::getOccupation));
+        columns.add(memberValues(FamilyMember::getMobileNumber));
+        columns.add(memberValues(FamilyMember::getAadhaarNumber));
+        List<String> addresses = new ArrayList<>();
+        for (HouseholdWithMembers group : WARD) {
+            addresses.add(group.getHousehold().getFullAddress());
+        }
+        columns.add(addresses);
+        double fontScale = calibriInstalled() ? 1.0 : DEJAVU_TO_CALIBRI_LATIN;
+        assertWidthsClose(columns, fontScale, LATIN_TOLERANCE);
+    }
+
+    @Test
+    void malayalamColumnMatchesAutosize() throws IOException {
+        List<String> names = memberValues(m -> isMalayalam(m.getFullName()) ? m.getFullName() : null);
+        assertTrue(!names.isEmpty(), "fixture ward has no Malayalam names");
+        assertWidthsClose(List.of(names), 1.0, MALAYALAM_TOLERANCE);
+    }
+
+    // fontScale converts the autosized width back to what Calibri would give
+    private static void assertWidthsClose(List<List<String>> columns, double fontScale, double tolerance)
+            throws IOException {
+        ExcelColumnWidths widths = new ExcelColumnWidths(columns.size());
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            SXSSFSheet sheet = workbook.createSheet();
+            sheet.trackAllColumnsForAutoSizing();
+            int rowIdx = 0;
+            for (int column = 0; column < columns.size(); column++) {
+                for (String value : columns.get(column)) {
+                    Row row = sheet.createRow(rowIdx++);
+                    row.createCell(column).setCellValue(value);
+                    widths.track(column, value, false);
+                }
+            }
+            for (int column = 0; column < columns.size(); column++) {
+                sheet.autoSizeColumn(column);
+                int expected = (int) Math.round(sheet.getColumnWidth(column) / fontScale);
+                int estimated = widths.columnWidth(column);
+                double error = Math.abs(estimated - expected) / (double) expected;
+                int col = column;
+                assertTrue(error <= tolerance, () -> "Column " + col + ": estimated " + estimated
+                        + " but autosize gave " + expected + " (" + Math.round(error * 100) + "% off)");
+            }
+            workbook.dispose();
+        }
+    }
+
+    // AWT substitutes its logical Dialog font for families it cannot find
+    private static boolean calibriInstalled() {
+        return "Calibri".equals(new Font("Calibri", Font.PLAIN, 11).getFamily());
+    }
+
+    private static List<String> memberValues(Function<FamilyMember, String> getter) {
+        List<String> values = new ArrayList<>();
+        for (HouseholdWithMembers group : WARD) {
+            for (FamilyMember member : group.getMembers()) {
+                String value = getter.apply(member);
+                if (value != null && !value.isEmpty()) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static boolean isMalayalam(String value) {
+        return value.chars().anyMatch(c -> c >= 0x0D00 && c <= 0x0D7F);
+    }
+}
@@ -0,0 +1,92 @@
+package com.erfan.warddata.Services;
+
+import com.erfan.warddata.Dto.HouseholdWithMembers;
+import com.erfan.warddata.Enums.Gender;
+import com.erfan.warddata.Enums.RationCardType;
+import com.erfan.warddata.Enums.VisitStatus;
+import com.erfan.warddata.Models.FamilyMember;
+import com.erfan.warddata.Models.Household;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The PDF member table is added in slices of incomplete rows; a household
+ * larger than a page must still come out whole, in order, with the header row
+ * repeated on every page it spans.
+ */
+class ExportServicePdfTest {
+
+    private static final int LARGE_HOUSEHOLD = 300;
+    private static final Pattern MEMBER = Pattern.compile("Member (\\d{3})");
+
+    @Test
+    void largeHouseholdSpansPagesWithoutLosingRows() throws Exception {
+        List<HouseholdWithMembers> ward = List.of(household("BEFORE-1", 3), household("LARGE-1", LARGE_HOUSEHOLD),
+                household("AFTER-1", 2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExportService(null, null, null).renderPdf("Test", ward.iterator(), out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        assertTrue(reader.getNumberOfPages() > 2, "300 members should span several pages");
+
+        List<Integer> members = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            String text = extractor.getTextFromPage(page);
+            all.append(text).append('\n');
+            Matcher matcher = MEMBER.matcher(text);
+            boolean hasMembers = false;
+            while (matcher.find()) {
+                members.add(Integer.parseInt(matcher.group(1)));
+                hasMembers = true;
+            }
+            if (hasMembers) {
+                assertTrue(text.contains("Aadhaar"), "Member table header missing on page " + page);
+            }
+        }
+        reader.close();
+
+        // The small households number their members from 0 as well
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add(i);
+        }
+        for (int i = 0; i < LARGE_HOUSEHOLD; i++) {
+            expected.add(i);
+        }
+        expected.add(0);
+        expected.add(1);
+        assertEquals(expected, members);
+        assertTrue(all.indexOf("LARGE-1") < all.indexOf("AFTER-1"));
+    }
+
+    private static HouseholdWithMembers household(String houseNumber, int memberCount) {
+        Household household = new Household();
+        household.setId((long) houseNumber.hashCode());
+        household.setWardId(1L);
+        household.setHouseNumber(houseNumber);
+        household.setFullAddress("Panchayat Road");
+        household.setRationCardType(RationCardType.BPL);
+        household.setVisitStatus(VisitStatus.VISITED);
+        List<FamilyMember> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i++) {
+            FamilyMember member = new FamilyMember();
+            member.setHouseholdId(household.getId());
+            member.setFullName(String.format("Member %03d", i));
+            member.setGender(i % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+            members.add(member);
+        }
+        return new HouseholdWithMembers(household, members);
+    }
+}
@@ -0,0 +1,56 @@
+-- Rows for IndexUsageExplainTest, so the optimizer plans against a populated
+-- schema rather than empty tables. Replaces the seeded ranges on every run;
+-- only point it at a scratch schema. Plain joins over a digits table keep it
+-- to SQL that MySQL 8 and MariaDB both accept.
+
+DROP TEMPORARY TABLE IF EXISTS explain_digits;
+CREATE TEMPORARY TABLE explain_digits (d INT NOT NULL PRIMARY KEY);
+INSERT INTO explain_digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+-- 20 wards of 1,000 households with 4 members each
+DELETE FROM family_members WHERE id BETWEEN 1 AND 80000;
+DELETE FROM households WHERE id BETWEEN 1 AND 20000;
+DELETE FROM visit_daily_rollups WHERE agent_id BETWEEN 1000 AND 1199;
+DELETE FROM users WHERE id BETWEEN 1000 AND 1499;
+DELETE FROM wards WHERE id BETWEEN 1 AND 20;
+
+INSERT INTO wards (id, name, local_body, total_houses, created_at)
+SELECT n, CONCAT('Ward ', n), 'Seed Panchayat', 1000, NOW()
+FROM (SELECT a.d * 10 + b.d + 1 AS n FROM explain_digits a, explain_digits b) w
+WHERE n <= 20;
+
+INSERT INTO households (id, ward_id, house_number, full_address, landmark, ration_card_number, ration_card_type,
+                        visit_status, created_by_agent_id, updated_at)
+SELECT n, 1 + n % 20, CAST(1 + n DIV 20 AS CHAR), CONCAT('House ', n, ', Seed Road'), 'Temple',
+       CONCAT('RC', n), ELT(1 + n % 3, 'AAY', 'APL', 'BPL'), ELT(1 + n % 3, 'NOT_VISITED', 'VISITED', 'VERIFIED'),
+       1000 + n % 200, NOW()
+FROM (SELECT a.d * 10000 + b.d * 1000 + c.d * 100 + e.d * 10 + f.d + 1 AS n
+      FROM explain_digits a, explain_digits b, explain_digits c, explain_digits e, explain_digits f) h
+WHERE n <= 20000;
+
+INSERT INTO family_members (id, household_id, full_name, gender, date_of_birth, monthly_income, relationship_to_head,
+                            education, occupation, disability_flag, senior_citizen_flag, created_at, updated_at)
+SELECT n, 1 + (n - 1) DIV 4, CONCAT('Member ', n), ELT(1 + n % 2, 'MALE', 'FEMALE'),
+       DATE_SUB('2026-10-18', INTERVAL n % 32850 DAY), (n % 7) * 2500, ELT(1 + n % 4, 'Head', 'Spouse', 'Son', 'Daughter'),
+       'SSLC', 'Fisherman', n % 50 = 0, n % 32850 >= 21900, NOW(), NOW()
+FROM (SELECT a.d * 10000 + b.d * 1000 + c.d * 100 + e.d * 10 + f.d + 1 AS n
+      FROM explain_digits a, explain_digits b, explain_digits c, explain_digits e, explain_digits f) m
+WHERE n <= 80000;
+
+-- 500 users, mostly field agents, some inactive
+INSERT INTO users (id, role, name, email, mobile_number, password, active)
+SELECT n, IF(n % 25 = 0, 'WARD_MEMBER', 'AGENT'), CONCAT('User ', n), CONCAT('user', n, '@example.org'),
+       CONCAT('9', LPAD(n, 9, '0')), '-', n % 10 <> 0
+FROM (SELECT 1000 + a.d * 100 + b.d * 10 + c.d AS n FROM explain_digits a, explain_digits b, explain_digits c) u
+WHERE n < 1500;
+
+-- A year of daily visit counts for 200 agents
+INSERT INTO visit_daily_rollups (agent_id, visit_date, ward_id, visits)
+SELECT 1000 + g.n, DATE_SUB('2026-10-18', INTERVAL day.n DAY), 1 + g.n % 20, 1 + (g.n + day.n) % 9
+FROM (SELECT a.d * 100 + b.d * 10 + c.d AS n FROM explain_digits a, explain_digits b, explain_digits c) g,
+     (SELECT a.d * 100 + b.d * 10 + c.d AS n FROM explain_digits a, explain_digits b, explain_digits c) day
+WHERE g.n < 200 AND day.n < 365;
+
+DROP TEMPORARY TABLE explain_digits;
+
+ANALYZE TABLE wards, households, family_members, users, visit_daily_rollups;